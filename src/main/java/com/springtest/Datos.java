@@ -2,8 +2,8 @@ package com.springtest;
 
 import com.springtest.models.Banco;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 
 public class Datos {
@@ -13,11 +13,11 @@ public class Datos {
     public static final Banco BANCO = new Banco(1L,"Banco Financiero", 0);*/
 
     public static Optional<Cuenta> crearCuenta001(){
-        return Optional.of(new Cuenta(1L,"christian", new BigDecimal("1000")));
+        return Optional.of(new Cuenta(1L,"christian", Money.of("1000")));
     }
 
     public static Optional<Cuenta> crearCuenta002(){
-        return Optional.of(new Cuenta(2L,"juana", new BigDecimal("2000")));
+        return Optional.of(new Cuenta(2L,"juana", Money.of("2000")));
     }
 
     public static Optional<Banco> crearBanco(){
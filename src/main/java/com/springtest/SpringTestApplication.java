@@ -1,8 +1,16 @@
 package com.springtest;
 
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.annotation.RetryConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableRetry
+@EnableScheduling
 @SpringBootApplication
 public class SpringTestApplication {
 
@@ -10,4 +18,21 @@ public class SpringTestApplication {
         SpringApplication.run(SpringTestApplication.class, args);
     }
 
+    /**
+     * {@code @Retryable} tiene que envolver a {@code @Transactional}: cada intento
+     * abre su propia transaccion, y el conflicto de {@code @Version} que aparece
+     * en el commit llega al reintento. Los dos advisors usan por defecto
+     * {@code LOWEST_PRECEDENCE}, asi que sin esto el orden dependeria del orden de
+     * registro de los beans. Se fija en la definicion porque el advisor de
+     * reintentos se crea antes que los post-procesadores de beans.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor reintentosAntesQueTransacciones() {
+        return beanFactory -> {
+            for (String nombre : beanFactory.getBeanNamesForType(RetryConfiguration.class, true, false)) {
+                beanFactory.getBeanDefinition(nombre).getPropertyValues()
+                        .add("order", Ordered.LOWEST_PRECEDENCE - 1);
+            }
+        };
+    }
 }
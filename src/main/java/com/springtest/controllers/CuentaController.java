@@ -1,56 +1,226 @@
 package com.springtest.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.RespuestaConciliacion;
+import com.springtest.models.RespuestaOperacion;
+import com.springtest.models.RespuestaTransferencia;
+import com.springtest.models.TotalCuentas;
 import com.springtest.models.TransaccionDto;
+import com.springtest.models.TransferenciaEncolada;
+import com.springtest.services.ColaTransferencias;
+import com.springtest.services.CuentaCache;
 import com.springtest.services.CuentaService;
+import com.springtest.services.ImportacionCuentas;
+import com.springtest.services.RespuestasIdempotentes;
+import com.springtest.services.TotalizadorCuentas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
-import java.util.HashMap;
+import javax.annotation.PostConstruct;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 import static org.springframework.http.HttpStatus.*;
 
+// con el perfil reactivo la misma API la sirven las rutas de com.springtest.reactivo
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/api/cuentas")
 public class CuentaController {
 
+    private static final int LIMITE_MAXIMO = 1000;
+
+    // distingue los ETag de la lista entre reinicios, cuando la generacion vuelve a cero
+    private static final long INICIO = System.currentTimeMillis();
+
     @Autowired
     private CuentaService cuentaService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RespuestasIdempotentes respuestasIdempotentes;
+
+    @Autowired
+    private ColaTransferencias colaTransferencias;
+
+    @Autowired
+    private ImportacionCuentas importacionCuentas;
+
+    @Autowired
+    private TotalizadorCuentas totalizadorCuentas;
+
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    private final FechaDelDia fechaDelDia = new FechaDelDia();
+
+    // el serializador de la respuesta se resuelve una sola vez
+    private ObjectWriter escritorTransferencia;
+
+    @PostConstruct
+    void iniciar() {
+        escritorTransferencia = objectMapper.writerFor(RespuestaTransferencia.class);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity detalle(@PathVariable("id") Long id){
+    public ResponseEntity detalle(@PathVariable("id") Long id, WebRequest request){
         Cuenta cuenta = null;
         try{
             cuenta = cuentaService.findById(id);
         } catch (NoSuchElementException e){
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(cuenta);
+        if (cuenta == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // findById sale de la cache: un 304 normalmente no consulta la base
+        String etag = etag(cuenta);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(cuenta);
+    }
+
+    // el saldo entra en el ETag: con los motores diario y memoria cambia sin cambiar @Version
+    private static String etag(Cuenta cuenta) {
+        return "\"" + cuenta.getId() + "-" + cuenta.getVersion() + "-" + (cuenta.getSaldo() == null ? "" : cuenta.getSaldo().getCentavos()) + "\"";
     }
 
     @PostMapping("/transferir")
-    public ResponseEntity<?> transferir(@RequestBody TransaccionDto dto){
-        cuentaService.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId());
+    public ResponseEntity<?> transferir(@RequestBody TransaccionDto dto,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia)
+            throws JsonProcessingException {
+        if (claveIdempotencia == null) {
+            cuentaService.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId());
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(escritorTransferencia.writeValueAsBytes(RespuestaTransferencia.exitosa(fechaDelDia.hoy(), dto)));
+        }
+
+        // una repeticion se contesta con la respuesta original sin tocar cuentas ni bancos
+        String cuerpo = respuestasIdempotentes.buscar(claveIdempotencia);
+        if (cuerpo == null) {
+            try {
+                cuerpo = respuestasIdempotentes.ejecutar(claveIdempotencia,
+                        escritorTransferencia.writeValueAsString(RespuestaTransferencia.exitosa(fechaDelDia.hoy(), dto)),
+                        () -> cuentaService.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId()));
+            } catch (DataIntegrityViolationException e) {
+                // otro pedido con la misma clave gano la carrera
+                cuerpo = respuestasIdempotentes.buscar(claveIdempotencia);
+                if (cuerpo == null) {
+                    return ResponseEntity.status(CONFLICT).build();
+                }
+            }
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("date", LocalDate.now().toString());
-        response.put("status", "OK");
-        response.put("mensaje", "Transferencia realizada con exito");
-        response.put("transaccion", dto);
+    @PostMapping("/transferir/batch")
+    public ResponseEntity<RespuestaOperacion> transferirLote(@RequestBody List<TransaccionDto> transacciones){
+        int total = cuentaService.transferirLote(transacciones);
+        return ResponseEntity.ok(RespuestaOperacion.exitosa(fechaDelDia.hoy(), "Transferencias realizadas con exito", total));
+    }
+
+
+    @PostMapping("/transferencias")
+    public ResponseEntity<?> encolarTransferencia(@RequestBody TransaccionDto dto){
+        if (dto.getCuentaOrigenId() == null || dto.getCuentaDestinoId() == null || dto.getBancoId() == null
+                || dto.getMonto() == null || dto.getMonto().compareTo(Money.ZERO) <= 0) {
+            // esta respuesta nunca llevo fecha
+            return ResponseEntity.badRequest().body(RespuestaOperacion.fallida(null,
+                    "Transferencia invalida: cuentas, banco y un monto positivo son obligatorios"));
+        }
+
+        TransferenciaEncolada encolada = colaTransferencias.encolar(dto);
+        if (encolada == null) {
+            return ResponseEntity.status(SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/cuentas/transferencias/" + encolada.getId()))
+                .body(encolada);
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/transferencias/{id}")
+    public ResponseEntity<TransferenciaEncolada> estadoTransferencia(@PathVariable("id") String id){
+        TransferenciaEncolada encolada = colaTransferencias.estado(id);
+        if (encolada == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(encolada);
     }
 
 
     @GetMapping
+    public ResponseEntity<List<Cuenta>> listar(WebRequest request){
+        // se lee antes de consultar: un commit durante la consulta deja una generacion mas nueva.
+        // Las escrituras por SQL directo no la cambian (ver CuentaCache)
+        String etag = "\"" + INICIO + "-" + cuentaCache.generacion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(cuentaService.findAll());
+    }
+
+    @GetMapping("/totales")
+    public TotalCuentas totales(){
+        return totalizadorCuentas.totales();
+    }
+
+    @GetMapping("/totales/conciliacion")
+    public RespuestaConciliacion conciliacion(){
+        // recorre todas las cuentas: para auditoria, no para el camino de lectura
+        TotalCuentas mantenidos = totalizadorCuentas.totales();
+        return RespuestaConciliacion.de(fechaDelDia.hoy(), mantenidos, totalizadorCuentas.recalcular());
+    }
+
+    @GetMapping(params = "persona")
+    public ResponseEntity<Cuenta> buscarPorPersona(@RequestParam String persona){
+        Cuenta cuenta = cuentaService.findByPersona(persona);
+        if (cuenta == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(cuenta);
+    }
+
+    @GetMapping(params = "limit")
     @ResponseStatus(OK)
-    public List<Cuenta> listar(){
-        return cuentaService.findAll();
+    public List<Cuenta> listarPagina(@RequestParam(defaultValue = "0") Long afterId, @RequestParam int limit){
+        return cuentaService.findPagina(afterId, Math.max(1, Math.min(limit, LIMITE_MAXIMO)));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> listarStream(){
+        StreamingResponseBody body = salida -> {
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.writeStartArray();
+                cuentaService.recorrerTodas(cuenta -> {
+                    try {
+                        generador.writeObject(cuenta);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generador.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
 
@@ -60,6 +230,23 @@ public class CuentaController {
         return cuentaService.save(cuenta);
     }
 
+    @PostMapping(value = "/importar", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<RespuestaOperacion> importar(@RequestHeader("Content-Type") String tipo, InputStream cuerpo) throws IOException {
+        String fecha = fechaDelDia.hoy();
+        try {
+            int total = MediaType.parseMediaType(tipo).isCompatibleWith(MediaType.valueOf("text/csv"))
+                    ? importacionCuentas.importarCsv(cuerpo)
+                    : importacionCuentas.importarNdjson(cuerpo);
+            return ResponseEntity.ok(RespuestaOperacion.exitosa(fecha, "Cuentas importadas con exito", total));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(RespuestaOperacion.fallida(fecha, e.getMessage()));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // el flush de cada lote ocurre dentro del servicio y llega sin traducir
+            return ResponseEntity.status(CONFLICT).body(RespuestaOperacion.fallida(fecha,
+                    "Alguna persona del archivo ya tiene cuenta; no se importo ninguna"));
+        }
+    }
+
 
 
     @DeleteMapping("/{id}")
@@ -68,6 +255,12 @@ public class CuentaController {
         cuentaService.deleteById(id);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<RespuestaOperacion> eliminarVarias(@RequestParam List<Long> ids){
+        int total = cuentaService.deleteAllById(ids);
+        return ResponseEntity.ok(RespuestaOperacion.exitosa(fechaDelDia.hoy(), "Cuentas eliminadas con exito", total));
+    }
+
 
 }
 
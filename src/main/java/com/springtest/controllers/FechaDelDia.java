@@ -0,0 +1,38 @@
+package com.springtest.controllers;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * {@code LocalDate.now().toString()} calculado una vez por dia: mientras no
+ * pase la medianoche solo cuesta una lectura de {@code System.currentTimeMillis()}.
+ */
+public class FechaDelDia {
+
+    private volatile Fecha actual = calcular();
+
+    public String hoy() {
+        Fecha fecha = actual;
+        if (System.currentTimeMillis() >= fecha.finMs) {
+            fecha = calcular();
+            actual = fecha;
+        }
+        return fecha.texto;
+    }
+
+    private static Fecha calcular() {
+        ZoneId zona = ZoneId.systemDefault();
+        LocalDate hoy = LocalDate.now(zona);
+        return new Fecha(hoy.toString(), hoy.plusDays(1).atStartOfDay(zona).toInstant().toEpochMilli());
+    }
+
+    private static final class Fecha {
+        private final String texto;
+        private final long finMs;
+
+        private Fecha(String texto, long finMs) {
+            this.texto = texto;
+            this.finMs = finMs;
+        }
+    }
+}
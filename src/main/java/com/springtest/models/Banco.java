@@ -1,7 +1,9 @@
 package com.springtest.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
@@ -14,9 +16,19 @@ import javax.persistence.*;
 public class Banco {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bancos_seq")
+    @SequenceGenerator(name = "bancos_seq", sequenceName = "bancos_seq", allocationSize = 50)
+    @Column(columnDefinition = "bigint default next value for bancos_seq")
     private Long id;
     private String nombre;
     @Column(name = "total_transferencias")
     private int totalTransferencias;
+    @Version
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    public Banco(Long id, String nombre, int totalTransferencias) {
+        this(id, nombre, totalTransferencias, null);
+    }
 }
@@ -0,0 +1,24 @@
+package com.springtest.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "contadores_franja",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"banco_id", "franja"}))
+public class ContadorFranja {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "banco_id")
+    private Long bancoId;
+    private int franja;
+    private long total;
+}
@@ -1,38 +1,52 @@
 package com.springtest.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.springtest.exceptions.DineroInsuficienteException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "cuentas")
+@Table(name = "cuentas", indexes = @Index(name = "ux_cuentas_persona", columnList = "persona", unique = true))
 public class Cuenta {
 
+    // secuencia por bloques (pooled-lo): IDENTITY impediria agrupar los INSERT; el DEFAULT
+    // deja que un INSERT por SQL sin id tome un valor propio de la misma secuencia
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuentas_seq")
+    @SequenceGenerator(name = "cuentas_seq", sequenceName = "cuentas_seq", allocationSize = 50)
+    @Column(columnDefinition = "bigint default next value for cuentas_seq")
     private Long id;
     private String persona;
-    private BigDecimal saldo;
-
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private Money saldo;
+    @Version
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    public Cuenta(Long id, String persona, Money saldo) {
+        this(id, persona, saldo, null);
+    }
 
-    public void debito(BigDecimal monto){
-        BigDecimal nuevoSaldo = this.saldo.subtract(monto);
-        if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
+    public void debito(Money monto){
+        Money nuevoSaldo = this.saldo.restar(monto);
+        if (nuevoSaldo.esNegativo()) {
             throw new DineroInsuficienteException("Dinero Insuficiente en la cuenta");
         }
         this.saldo = nuevoSaldo;
     }
 
-    public void credito(BigDecimal monto){
-        this.saldo = this.saldo.add(monto);
+    public void credito(Money monto){
+        this.saldo = this.saldo.sumar(monto);
     }
 
 }
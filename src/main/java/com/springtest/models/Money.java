@@ -0,0 +1,98 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto inmutable en centavos respaldado por un {@code long}: solo admite valores
+ * que se representan exactos con dos decimales.
+ * Las operaciones fallan con {@link ArithmeticException} si desbordan.
+ * <p>
+ * Como el {@link BigDecimal} al que reemplaza, recuerda con cuantos decimales se
+ * escribio ({@code 100}, {@code 100.5}, {@code 100.00}, tambien {@code 1.500}) y los
+ * conserva en JSON y en {@link #toPlainString()}, sin recortar la escala a dos; suma y
+ * resta se quedan con la mayor escala. La base de
+ * datos siempre lo guarda con dos decimales. {@code equals} compara solo el valor.
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int ESCALA = 2;
+    public static final Money ZERO = new Money(0, 0);
+
+    private final long centavos;
+    private final int escala;
+
+    private Money(long centavos, int escala) {
+        this.centavos = centavos;
+        this.escala = escala;
+    }
+
+    public static Money deCentavos(long centavos) {
+        return new Money(centavos, ESCALA);
+    }
+
+    /**
+     * @throws ArithmeticException si el valor tiene decimales distintos de cero mas alla
+     *         del segundo o no cabe en un {@code long}
+     */
+    public static Money of(BigDecimal valor) {
+        return new Money(valor.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(),
+                Math.max(valor.scale(), 0));
+    }
+
+    public static Money of(String valor) {
+        return of(new BigDecimal(valor));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Money sumar(Money otro) {
+        return new Money(Math.addExact(centavos, otro.centavos), Math.max(escala, otro.escala));
+    }
+
+    public Money restar(Money otro) {
+        return new Money(Math.subtractExact(centavos, otro.centavos), Math.max(escala, otro.escala));
+    }
+
+    public boolean esNegativo() {
+        return centavos < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, ESCALA).setScale(escala, RoundingMode.UNNECESSARY);
+    }
+
+    public String toPlainString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    @Override
+    public int compareTo(Money otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return centavos == ((Money) o).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+}
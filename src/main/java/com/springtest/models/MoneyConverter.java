@@ -0,0 +1,19 @@
+package com.springtest.models;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : BigDecimal.valueOf(money.getCentavos(), Money.ESCALA);
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal valor) {
+        return valor == null ? null : Money.of(valor);
+    }
+}
@@ -0,0 +1,42 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Acepta el monto como numero JSON o como texto, igual que antes con {@link BigDecimal}.
+ */
+public class MoneyDeserializer extends StdDeserializer<Money> {
+
+    public MoneyDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.hasToken(JsonToken.VALUE_STRING)) {
+            return convertir(p, p.getDecimalValue());
+        }
+        String texto = p.getText().trim();
+        try {
+            return convertir(p, new BigDecimal(texto));
+        } catch (NumberFormatException e) {
+            throw InvalidFormatException.from(p, "Monto invalido", texto, Money.class);
+        }
+    }
+
+    private Money convertir(JsonParser p, BigDecimal valor) throws IOException {
+        try {
+            return Money.of(valor);
+        } catch (ArithmeticException e) {
+            throw InvalidFormatException.from(p, "Monto fuera de rango o con mas de " + Money.ESCALA + " decimales",
+                    valor, Money.class);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+
+/**
+ * Cuerpo de {@code GET /api/cuentas/totales/conciliacion}: los totales mantenidos
+ * junto a los recalculados recorriendo las cuentas. Mismo orden de claves que el
+ * {@code HashMap} que reemplaza.
+ */
+@Value
+@JsonPropertyOrder({"date", "mantenidos", "diferencia", "status", "recalculados"})
+public class RespuestaConciliacion {
+
+    String date;
+    String status;
+    TotalCuentas mantenidos;
+    TotalCuentas recalculados;
+    Money diferencia;
+
+    public static RespuestaConciliacion de(String fecha, TotalCuentas mantenidos, TotalCuentas recalculados) {
+        return new RespuestaConciliacion(fecha, mantenidos.equals(recalculados) ? "OK" : "DESCUADRE",
+                mantenidos, recalculados, mantenidos.getSaldoTotal().restar(recalculados.getSaldoTotal()));
+    }
+}
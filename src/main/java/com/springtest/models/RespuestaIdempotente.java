@@ -0,0 +1,26 @@
+package com.springtest.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "respuestas_idempotentes",
+        indexes = @Index(name = "ux_respuestas_idempotentes_clave", columnList = "clave", unique = true))
+public class RespuestaIdempotente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private String clave;
+    @Column(length = 4000)
+    private String cuerpo;
+    private LocalDateTime creada;
+}
@@ -0,0 +1,30 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+
+/**
+ * Cuerpo de las respuestas de las operaciones masivas (lote de transferencias,
+ * importacion, eliminacion de varias cuentas) y de sus errores. Las claves salen
+ * en el orden del {@code HashMap} que reemplaza y las ausentes no se escriben, asi
+ * que el JSON no cambia.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"date", "total", "mensaje", "status"})
+public class RespuestaOperacion {
+
+    String date;
+    String status;
+    String mensaje;
+    Integer total;
+
+    public static RespuestaOperacion exitosa(String fecha, String mensaje, int total) {
+        return new RespuestaOperacion(fecha, "OK", mensaje, total);
+    }
+
+    public static RespuestaOperacion fallida(String fecha, String mensaje) {
+        return new RespuestaOperacion(fecha, "FAILED", mensaje, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Value;
+
+/**
+ * Cuerpo de la respuesta de {@code POST /api/cuentas/transferir}. Las claves
+ * salen en el mismo orden que tenia el {@code HashMap} que reemplaza, asi el
+ * JSON no cambia ni para las respuestas guardadas por Idempotency-Key.
+ */
+@Value
+@JsonPropertyOrder({"date", "transaccion", "mensaje", "status"})
+public class RespuestaTransferencia {
+
+    String date;
+    String status;
+    String mensaje;
+    TransaccionDto transaccion;
+
+    public static RespuestaTransferencia exitosa(String fecha, TransaccionDto transaccion) {
+        return new RespuestaTransferencia(fecha, "OK", "Transferencia realizada con exito", transaccion);
+    }
+}
@@ -0,0 +1,31 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Fila unica con el numero de cuentas y la suma de sus saldos. Se mantiene con
+ * {@code UPDATE} incrementales dentro de la transaccion que crea, modifica o
+ * elimina cuentas; las transferencias no la tocan porque no cambian el total.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "totales_cuentas")
+public class TotalCuentas {
+
+    public static final Long ID = 1L;
+
+    @Id
+    @JsonIgnore
+    private Long id;
+    private long cuentas;
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "saldo_total", precision = 19, scale = 2)
+    private Money saldoTotal;
+}
@@ -0,0 +1,45 @@
+package com.springtest.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Asiento del diario de transferencias. Solo se inserta; la compactacion lo marca
+ * con el numero de la pasada que lo sumo al saldo de las cuentas.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "transacciones", indexes = {
+        @Index(name = "ix_transacciones_origen", columnList = "cuenta_origen_id, compactacion"),
+        @Index(name = "ix_transacciones_destino", columnList = "cuenta_destino_id, compactacion"),
+        @Index(name = "ix_transacciones_compactacion", columnList = "compactacion")
+})
+public class Transaccion {
+
+    // secuencia con asignacion por bloques: IDENTITY impediria agrupar los INSERT
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_seq")
+    @SequenceGenerator(name = "transacciones_seq", sequenceName = "transacciones_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "cuenta_origen_id")
+    private Long cuentaOrigenId;
+    @Column(name = "cuenta_destino_id")
+    private Long cuentaDestinoId;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private Money monto;
+    @Column(name = "banco_id")
+    private Long bancoId;
+    private LocalDateTime fecha;
+    private Long compactacion;
+
+    public Transaccion(Long cuentaOrigenId, Long cuentaDestinoId, Money monto, Long bancoId) {
+        this(null, cuentaOrigenId, cuentaDestinoId, monto, bancoId, LocalDateTime.now(), null);
+    }
+}
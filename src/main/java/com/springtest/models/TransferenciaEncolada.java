@@ -0,0 +1,22 @@
+package com.springtest.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de una transferencia recibida por {@code POST /api/cuentas/transferencias}.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TransferenciaEncolada {
+
+    public enum Estado {
+        PENDING, OK, FAILED
+    }
+
+    private String id;
+    private Estado estado;
+    private String motivo;
+}
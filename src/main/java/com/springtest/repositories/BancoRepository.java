@@ -2,7 +2,27 @@ package com.springtest.repositories;
 
 import com.springtest.models.Banco;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface BancoRepository extends JpaRepository<Banco, Long> {}
+public interface BancoRepository extends JpaRepository<Banco, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Banco b where b.id=?1")
+    Optional<Banco> findByIdParaActualizar(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Banco b order by b.id")
+    List<Banco> findAllParaActualizar();
+
+    @Modifying
+    @Query("update Banco b set b.totalTransferencias = b.totalTransferencias + ?2 where b.id = ?1")
+    int sumarTransferencias(Long id, int cantidad);
+}
@@ -0,0 +1,22 @@
+package com.springtest.repositories;
+
+import com.springtest.models.ContadorFranja;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ContadorFranjaRepository extends JpaRepository<ContadorFranja, Long> {
+
+    @Modifying
+    @Query("update ContadorFranja c set c.total = c.total + ?3 where c.bancoId = ?1 and c.franja = ?2")
+    int incrementar(Long bancoId, int franja, long cantidad);
+
+    @Query("select coalesce(sum(c.total), 0) from ContadorFranja c where c.bancoId = ?1")
+    long sumarPorBanco(Long bancoId);
+
+    List<ContadorFranja> findByBancoId(Long bancoId);
+}
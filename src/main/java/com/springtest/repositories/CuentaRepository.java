@@ -1,16 +1,67 @@
 package com.springtest.repositories;
 
 import com.springtest.models.Cuenta;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CuentaRepository extends JpaRepository<Cuenta,Long> {
     @Query("select c from Cuenta c where c.persona=?1")
     Optional<Cuenta> findByPersona(String persona);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cuenta c where c.id=?1")
+    Optional<Cuenta> findByIdParaActualizar(Long id);
+
+    // el orden por id evita ciclos de espera entre lotes que comparten cuentas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cuenta c where c.id in ?1 order by c.id")
+    List<Cuenta> findAllByIdParaActualizar(Collection<Long> ids);
+
+    // paginacion por clave: recorre el indice de la PK desde afterId, sin OFFSET
+    @Query("select c from Cuenta c where c.id > ?1 order by c.id")
+    List<Cuenta> findPagina(Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select c from Cuenta c order by c.id")
+    Stream<Cuenta> streamAll();
+
+    // descuenta solo si el saldo alcanza: 0 filas es saldo insuficiente o cuenta inexistente
+    @Modifying
+    @Query(value = "update cuentas set saldo = saldo - ?2, version = version + 1 where id = ?1 and saldo >= ?2",
+            nativeQuery = true)
+    int debitar(Long id, BigDecimal monto);
+
+    @Modifying
+    @Query(value = "update cuentas set saldo = saldo + ?2, version = version + 1 where id = ?1", nativeQuery = true)
+    int acreditar(Long id, BigDecimal monto);
+
+    // id, persona, saldo, version sin pasar por el contexto de persistencia
+    @Query(value = "select id, persona, saldo, version from cuentas where id in ?1", nativeQuery = true)
+    List<Object[]> leerFilas(Collection<Long> ids);
+
+    // un solo DELETE, sin cargar la cuenta antes como hace deleteById
+    @Modifying
+    @Query("delete from Cuenta c where c.id = ?1")
+    int eliminarPorId(Long id);
+
+    @Modifying
+    @Query("delete from Cuenta c where c.id in ?1")
+    int eliminarPorIds(Collection<Long> ids);
 
 }
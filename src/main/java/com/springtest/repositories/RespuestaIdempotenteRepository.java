@@ -0,0 +1,21 @@
+package com.springtest.repositories;
+
+import com.springtest.models.RespuestaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, Long> {
+
+    @Query("select r from RespuestaIdempotente r where r.clave=?1")
+    Optional<RespuestaIdempotente> findByClave(String clave);
+
+    @Modifying
+    @Query("delete from RespuestaIdempotente r where r.creada < ?1")
+    int eliminarAnteriores(LocalDateTime limite);
+}
@@ -0,0 +1,29 @@
+package com.springtest.repositories;
+
+import com.springtest.models.TotalCuentas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TotalCuentasRepository extends JpaRepository<TotalCuentas, Long> {
+
+    @Modifying
+    @Query(value = "update totales_cuentas set cuentas = cuentas + ?1, saldo_total = saldo_total + ?2 where id = 1",
+            nativeQuery = true)
+    int sumar(long cuentas, BigDecimal saldo);
+
+    // bloquea las cuentas que se van a eliminar: una transferencia concurrente no puede
+    // cambiar el saldo que se resta del total
+    @Query(value = "select saldo from cuentas where id in ?1 for update", nativeQuery = true)
+    List<BigDecimal> saldosParaEliminar(Collection<Long> ids);
+
+    // conciliacion: recorre toda la tabla de cuentas
+    @Query(value = "select count(*), coalesce(sum(saldo), 0) from cuentas", nativeQuery = true)
+    List<Object[]> contar();
+}
@@ -0,0 +1,64 @@
+package com.springtest.repositories;
+
+import com.springtest.models.Transaccion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TransaccionRepository extends JpaRepository<Transaccion, Long> {
+
+    // saldo de la ultima compactacion mas los asientos que todavia no se sumaron;
+    // en una sola sentencia para no ver una compactacion a medias
+    String SALDO_EFECTIVO = "c.saldo"
+            + " + coalesce((select sum(t.monto) from transacciones t where t.cuenta_destino_id = c.id and t.compactacion is null), 0)"
+            + " - coalesce((select sum(t.monto) from transacciones t where t.cuenta_origen_id = c.id and t.compactacion is null), 0)";
+
+    @Query(value = "select " + SALDO_EFECTIVO + " from cuentas c where c.id = ?1", nativeQuery = true)
+    BigDecimal saldoEfectivo(Long cuentaId);
+
+    @Query(value = "select c.id, c.persona, " + SALDO_EFECTIVO + ", c.version from cuentas c where c.id = ?1",
+            nativeQuery = true)
+    List<Object[]> cuentaConSaldoEfectivo(Long cuentaId);
+
+    @Query(value = "select c.id, " + SALDO_EFECTIVO + " from cuentas c where c.id in ?1", nativeQuery = true)
+    List<Object[]> saldosEfectivos(Collection<Long> cuentaIds);
+
+    @Query(value = "select c.id, c.persona, " + SALDO_EFECTIVO + ", c.version from cuentas c order by c.id",
+            nativeQuery = true)
+    List<Object[]> cuentasConSaldoEfectivo();
+
+    @Query(value = "select c.id, c.persona, " + SALDO_EFECTIVO + ", c.version from cuentas c"
+            + " where c.id > ?1 order by c.id limit ?2", nativeQuery = true)
+    List<Object[]> paginaConSaldoEfectivo(Long afterId, int limit);
+
+    @Query("select b.totalTransferencias + (select count(t) from Transaccion t where t.bancoId = b.id and t.compactacion is null)"
+            + " from Banco b where b.id = ?1")
+    long totalTransferencias(Long bancoId);
+
+    @Query("select max(t.id) from Transaccion t where t.compactacion is null")
+    Long ultimaPendiente();
+
+    @Modifying
+    @Query("update Transaccion t set t.compactacion = ?1 where t.compactacion is null and t.id <= ?1")
+    int marcarCompactacion(Long compactacion);
+
+    @Modifying
+    @Query(value = "update cuentas c set"
+            + " saldo = c.saldo"
+            + " + coalesce((select sum(t.monto) from transacciones t where t.cuenta_destino_id = c.id and t.compactacion = ?1), 0)"
+            + " - coalesce((select sum(t.monto) from transacciones t where t.cuenta_origen_id = c.id and t.compactacion = ?1), 0),"
+            + " version = c.version + 1"
+            + " where c.id in (select t.cuenta_origen_id from transacciones t where t.compactacion = ?1)"
+            + " or c.id in (select t.cuenta_destino_id from transacciones t where t.compactacion = ?1)",
+            nativeQuery = true)
+    int sumarASaldos(Long compactacion);
+
+    @Query("select t.bancoId, count(t) from Transaccion t where t.compactacion = ?1 group by t.bancoId")
+    List<Object[]> contarPorBanco(Long compactacion);
+}
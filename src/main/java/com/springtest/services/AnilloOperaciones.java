@@ -0,0 +1,72 @@
+package com.springtest.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular sin bloqueos para varios productores y un solo consumidor.
+ * <p>
+ * Cada productor reclama una secuencia con un incremento atomico, escribe su
+ * elemento en la posicion {@code secuencia & mascara} y la marca como publicada.
+ * El consumidor avanza en orden de secuencia y se detiene en la primera posicion
+ * que todavia no fue publicada. Si el anillo esta lleno el productor espera a que
+ * el consumidor libere su posicion.
+ */
+final class AnilloOperaciones<T> {
+
+    private final Object[] elementos;
+    private final AtomicLongArray publicados;
+    private final int mascara;
+    private final AtomicLong reclamado = new AtomicLong(-1);
+    private volatile long consumido = -1;
+
+    AnilloOperaciones(int capacidad) {
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser potencia de dos: " + capacidad);
+        }
+        this.elementos = new Object[capacidad];
+        this.publicados = new AtomicLongArray(capacidad);
+        this.mascara = capacidad - 1;
+        for (int i = 0; i < capacidad; i++) {
+            publicados.set(i, -1);
+        }
+    }
+
+    void publicar(T elemento) {
+        long secuencia = reclamado.incrementAndGet();
+        while (secuencia - consumido > elementos.length) {
+            Thread.yield();
+        }
+        int posicion = (int) secuencia & mascara;
+        elementos[posicion] = elemento;
+        publicados.lazySet(posicion, secuencia);
+    }
+
+    /**
+     * Entrega al consumidor hasta {@code maximo} elementos publicados, en orden.
+     * Solo puede llamarlo el hilo consumidor.
+     */
+    @SuppressWarnings("unchecked")
+    int drenar(Consumer<T> destino, int maximo) {
+        long siguiente = consumido + 1;
+        int entregados = 0;
+        while (entregados < maximo) {
+            int posicion = (int) siguiente & mascara;
+            if (publicados.get(posicion) != siguiente) {
+                break;
+            }
+            T elemento = (T) elementos[posicion];
+            elementos[posicion] = null;
+            destino.accept(elemento);
+            siguiente++;
+            entregados++;
+        }
+        consumido = siguiente - 1;
+        return entregados;
+    }
+
+    boolean vacio() {
+        return reclamado.get() == consumido;
+    }
+}
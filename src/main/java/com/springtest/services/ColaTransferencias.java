@@ -0,0 +1,154 @@
+package com.springtest.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springtest.models.TransaccionDto;
+import com.springtest.models.TransferenciaEncolada;
+import com.springtest.models.TransferenciaEncolada.Estado;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transferencias aceptadas para hacerse despues. Se encolan en una cola acotada
+ * que vacia un grupo fijo de trabajadores; cada trabajador toma hasta
+ * {@code app.transferencias.cola.lote} transferencias y las hace en una sola
+ * transaccion con {@link CuentaService#transferirLote}. Si el grupo falla se
+ * repiten una por una, para que cada transferencia tenga su propio resultado.
+ * <p>
+ * Los estados se guardan en memoria durante {@code app.transferencias.cola.ttl-ms}.
+ */
+@Component
+public class ColaTransferencias {
+
+    @Autowired
+    private CuentaService cuentaService;
+
+    @Value("${app.transferencias.cola.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${app.transferencias.cola.trabajadores:4}")
+    private int trabajadores;
+
+    @Value("${app.transferencias.cola.lote:50}")
+    private int lote;
+
+    @Value("${app.transferencias.cola.ttl-ms:3600000}")
+    private long ttlMs;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private BlockingQueue<Solicitud> cola;
+    private Cache<String, TransferenciaEncolada> estados;
+    private ExecutorService ejecutor;
+    private volatile boolean activa;
+
+    @PostConstruct
+    public void iniciar() {
+        cola = new ArrayBlockingQueue<>(capacidad);
+        estados = Caffeine.newBuilder()
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+        Gauge.builder("transferencias.cola", cola, BlockingQueue::size).register(registry);
+        activa = true;
+        ejecutor = Executors.newFixedThreadPool(trabajadores);
+        for (int i = 0; i < trabajadores; i++) {
+            ejecutor.execute(this::trabajar);
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activa = false;
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Encola la transferencia y devuelve su estado PENDING, o {@code null} si la cola esta llena.
+     */
+    public TransferenciaEncolada encolar(TransaccionDto dto) {
+        TransferenciaEncolada pendiente = new TransferenciaEncolada(UUID.randomUUID().toString(), Estado.PENDING, null);
+        estados.put(pendiente.getId(), pendiente);
+        if (!cola.offer(new Solicitud(pendiente.getId(), dto))) {
+            estados.invalidate(pendiente.getId());
+            return null;
+        }
+        return pendiente;
+    }
+
+    public TransferenciaEncolada estado(String id) {
+        return estados.getIfPresent(id);
+    }
+
+    private void trabajar() {
+        List<Solicitud> grupo = new ArrayList<>(lote);
+        while (activa || !cola.isEmpty()) {
+            try {
+                Solicitud primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                grupo.add(primera);
+                cola.drainTo(grupo, lote - 1);
+                procesar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void procesar(List<Solicitud> grupo) {
+        if (grupo.size() > 1) {
+            List<TransaccionDto> transacciones = new ArrayList<>(grupo.size());
+            grupo.forEach(solicitud -> transacciones.add(solicitud.dto));
+            try {
+                cuentaService.transferirLote(transacciones);
+                grupo.forEach(solicitud -> terminar(solicitud, Estado.OK, null));
+                return;
+            } catch (RuntimeException e) {
+                // el lote hizo rollback completo: se separa para saber cual fallo
+            }
+        }
+        for (Solicitud solicitud : grupo) {
+            TransaccionDto dto = solicitud.dto;
+            try {
+                cuentaService.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId());
+                terminar(solicitud, Estado.OK, null);
+            } catch (RuntimeException e) {
+                terminar(solicitud, Estado.FAILED, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void terminar(Solicitud solicitud, Estado estado, String motivo) {
+        estados.put(solicitud.id, new TransferenciaEncolada(solicitud.id, estado, motivo));
+    }
+
+    private static final class Solicitud {
+        private final String id;
+        private final TransaccionDto dto;
+
+        private Solicitud(String id, TransaccionDto dto) {
+            this.id = id;
+            this.dto = dto;
+        }
+    }
+}
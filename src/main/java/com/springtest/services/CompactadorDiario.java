@@ -0,0 +1,52 @@
+package com.springtest.services;
+
+import com.springtest.repositories.BancoRepository;
+import com.springtest.repositories.TransaccionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Suma periodicamente los asientos pendientes del diario a {@code cuentas.saldo}
+ * y a {@code bancos.total_transferencias}, para que el saldo de una cuenta nunca
+ * tenga que recorrer mas que los asientos de la ultima ventana.
+ * <p>
+ * Cada pasada marca primero los asientos con su numero y despues suma solo los
+ * marcados: un asiento que se confirma mientras tanto queda para la siguiente.
+ * Las pasadas no se solapan: cada una empieza bloqueando las filas de
+ * {@code bancos}, que en este motor solo escribe el compactador. Dos pasadas a la
+ * vez podian marcar dos veces el mismo asiento (H2 no vuelve a evaluar
+ * {@code compactacion is null} despues de esperar el bloqueo) y sumarlo dos veces.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transferencias.motor", havingValue = "diario")
+public class CompactadorDiario {
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private BancoRepository bancoRepository;
+
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    @Scheduled(fixedDelayString = "${app.transferencias.diario.compactacion-ms:5000}")
+    @Transactional
+    public void compactar() {
+        bancoRepository.findAllParaActualizar();
+        Long compactacion = transaccionRepository.ultimaPendiente();
+        if (compactacion == null) {
+            return;
+        }
+        transaccionRepository.marcarCompactacion(compactacion);
+        transaccionRepository.sumarASaldos(compactacion);
+        for (Object[] fila : transaccionRepository.contarPorBanco(compactacion)) {
+            bancoRepository.sumarTransferencias((Long) fila[0], ((Number) fila[1]).intValue());
+        }
+        // el saldo efectivo no cambia, pero cuentas.saldo y la version si
+        cuentaCache.cambioDespuesDeCommit();
+    }
+}
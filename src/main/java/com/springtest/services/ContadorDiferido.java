@@ -0,0 +1,104 @@
+package com.springtest.services;
+
+import com.springtest.repositories.BancoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cuenta las transferencias en memoria con un {@link LongAdder} por banco y vuelca
+ * la diferencia a {@code bancos.total_transferencias} cada
+ * {@code app.transferencias.diferido.flush-ms} y al cerrar la aplicacion. Ninguna
+ * transferencia espera por la fila del banco.
+ * <p>
+ * El incremento se registra despues del commit, asi una transferencia que hace
+ * rollback no se cuenta. El total es lo guardado mas lo que falta volcar; si el
+ * proceso muere sin cerrarse se pierde lo que no se alcanzo a volcar. Un volcado
+ * que no encuentra la fila del banco no descarta nada, y una diferencia que no entra
+ * en la columna {@code int} falla con {@code ArithmeticException} en vez de desbordar.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transferencias.contador", havingValue = "diferido")
+public class ContadorDiferido implements ContadorTransferencias {
+
+    @Autowired
+    private BancoRepository bancoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+
+    @Override
+    public void incrementar(Long bancoId, int cantidad) {
+        Pendiente pendiente = pendientes.computeIfAbsent(bancoId, id -> new Pendiente());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendiente.contados.add(cantidad);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendiente.contados.add(cantidad);
+            }
+        });
+    }
+
+    @Override
+    public int total(Long bancoId) {
+        Pendiente pendiente = pendientes.get(bancoId);
+        if (pendiente == null) {
+            return bancoRepository.findById(bancoId).orElse(null).getTotalTransferencias();
+        }
+        // sin volcado en curso: lo guardado y lo volcado se leen consistentes
+        pendiente.volcando.lock();
+        try {
+            int guardado = bancoRepository.findById(bancoId).orElse(null).getTotalTransferencias();
+            return Math.addExact(guardado, Math.toIntExact(pendiente.contados.sum() - pendiente.volcados));
+        } finally {
+            pendiente.volcando.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.transferencias.diferido.flush-ms:1000}")
+    public void volcar() {
+        pendientes.forEach((bancoId, pendiente) -> {
+            pendiente.volcando.lock();
+            try {
+                // el adder solo crece: lo contado despues de sum() queda para el proximo volcado
+                long contados = pendiente.contados.sum();
+                int diferencia = Math.toIntExact(contados - pendiente.volcados);
+                if (diferencia > 0) {
+                    Integer actualizadas = transactionTemplate.execute(status -> bancoRepository.sumarTransferencias(bancoId, diferencia));
+                    // sin la fila del banco la diferencia sigue pendiente para el proximo volcado
+                    if (actualizadas != null && actualizadas == 1) {
+                        pendiente.volcados = contados;
+                    }
+                }
+            } finally {
+                pendiente.volcando.unlock();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void volcarAlCerrar() {
+        volcar();
+    }
+
+    private static final class Pendiente {
+        private final LongAdder contados = new LongAdder();
+        private final ReentrantLock volcando = new ReentrantLock();
+        private long volcados;
+    }
+}
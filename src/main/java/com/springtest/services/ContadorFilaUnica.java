@@ -0,0 +1,43 @@
+package com.springtest.services;
+
+import com.springtest.models.Banco;
+import com.springtest.repositories.BancoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Contador por defecto: lee, incrementa y guarda la columna
+ * {@code bancos.total_transferencias}. La fila del banco se bloquea siempre
+ * despues de las cuentas, asi el orden de bloqueo es el mismo en toda transferencia.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transferencias.contador", havingValue = "fila", matchIfMissing = true)
+public class ContadorFilaUnica implements ContadorTransferencias {
+
+    @Autowired
+    private BancoRepository bancoRepository;
+
+    @Override
+    public void incrementar(Long bancoId, int cantidad) {
+        Banco banco = bancoRepository.findByIdParaActualizar(bancoId).orElse(null);
+        int totalTransferencia = banco.getTotalTransferencias();
+        banco.setTotalTransferencias(totalTransferencia + cantidad);
+        bancoRepository.save(banco);
+    }
+
+    @Override
+    public void incrementarSinLeer(Long bancoId, int cantidad) {
+        if (bancoRepository.sumarTransferencias(bancoId, cantidad) == 0) {
+            throw new NoSuchElementException("Banco inexistente: " + bancoId);
+        }
+    }
+
+    @Override
+    public int total(Long bancoId) {
+        Banco banco = bancoRepository.findById(bancoId).orElse(null);
+        return banco.getTotalTransferencias();
+    }
+}
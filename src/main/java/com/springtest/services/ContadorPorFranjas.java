@@ -0,0 +1,109 @@
+package com.springtest.services;
+
+import com.springtest.models.Banco;
+import com.springtest.models.ContadorFranja;
+import com.springtest.repositories.BancoRepository;
+import com.springtest.repositories.ContadorFranjaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte el contador de cada banco en varias filas ("franjas") de
+ * {@code contadores_franja}. Cada transferencia incrementa una franja al azar con
+ * un {@code UPDATE} atomico, de modo que las transferencias concurrentes ya no
+ * esperan todas por la misma fila de {@code bancos}.
+ * El total es {@code bancos.total_transferencias} mas la suma de las franjas.
+ * <p>
+ * Las franjas de los bancos que existen al arrancar se crean en ese momento; las
+ * de un banco nuevo, en su primera transferencia. Esa creacion bloquea la fila del
+ * banco, asi que las primeras transferencias concurrentes de un banco nuevo la
+ * hacen de a una y ninguna choca con la restriccion unica {@code (banco_id, franja)}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transferencias.contador", havingValue = "franjas")
+public class ContadorPorFranjas implements ContadorTransferencias {
+
+    @Autowired
+    private BancoRepository bancoRepository;
+
+    @Autowired
+    private ContadorFranjaRepository contadorFranjaRepository;
+
+    @Value("${app.transferencias.franjas.cantidad:8}")
+    private int franjas;
+
+    @Value("${app.transferencias.franjas.cache-ms:0}")
+    private long cacheMs;
+
+    private final Map<Long, Agregado> agregados = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializarFranjas() {
+        bancoRepository.findAll().forEach(banco -> crearFranjas(banco.getId()));
+    }
+
+    @Override
+    public void incrementar(Long bancoId, int cantidad) {
+        int franja = ThreadLocalRandom.current().nextInt(franjas);
+        if (contadorFranjaRepository.incrementar(bancoId, franja, cantidad) == 0) {
+            // la siguiente transferencia espera este bloqueo y ya ve las franjas creadas
+            bancoRepository.findByIdParaActualizar(bancoId)
+                    .orElseThrow(() -> new NoSuchElementException("Banco inexistente: " + bancoId));
+            crearFranjas(bancoId);
+            contadorFranjaRepository.incrementar(bancoId, franja, cantidad);
+        }
+    }
+
+    @Override
+    public int total(Long bancoId) {
+        if (cacheMs <= 0) {
+            return calcularTotal(bancoId);
+        }
+        long ahora = System.currentTimeMillis();
+        Agregado agregado = agregados.get(bancoId);
+        if (agregado == null || agregado.expira < ahora) {
+            agregado = new Agregado(calcularTotal(bancoId), ahora + cacheMs);
+            agregados.put(bancoId, agregado);
+        }
+        return agregado.total;
+    }
+
+    private int calcularTotal(Long bancoId) {
+        Banco banco = bancoRepository.findById(bancoId).orElse(null);
+        return banco.getTotalTransferencias() + (int) contadorFranjaRepository.sumarPorBanco(bancoId);
+    }
+
+    private void crearFranjas(Long bancoId) {
+        Set<Integer> existentes = contadorFranjaRepository.findByBancoId(bancoId).stream()
+                .map(ContadorFranja::getFranja)
+                .collect(Collectors.toSet());
+        for (int franja = 0; franja < franjas; franja++) {
+            if (!existentes.contains(franja)) {
+                contadorFranjaRepository.save(new ContadorFranja(null, bancoId, franja, 0L));
+            }
+        }
+    }
+
+    private static final class Agregado {
+        private final int total;
+        private final long expira;
+
+        private Agregado(int total, long expira) {
+            this.total = total;
+            this.expira = expira;
+        }
+    }
+}
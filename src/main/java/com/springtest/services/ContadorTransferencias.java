@@ -0,0 +1,24 @@
+package com.springtest.services;
+
+/**
+ * Lleva el total de transferencias realizadas por banco.
+ * La implementacion activa se elige con la propiedad {@code app.transferencias.contador}.
+ */
+public interface ContadorTransferencias {
+
+    /**
+     * Suma {@code cantidad} transferencias al banco. Debe llamarse dentro de la
+     * transaccion de la transferencia.
+     */
+    void incrementar(Long bancoId, int cantidad);
+
+    /**
+     * Como {@link #incrementar}, para transferencias que no cargan entidades:
+     * la implementacion puede sumar con un solo {@code UPDATE} sin leer antes.
+     */
+    default void incrementarSinLeer(Long bancoId, int cantidad) {
+        incrementar(bancoId, cantidad);
+    }
+
+    int total(Long bancoId);
+}
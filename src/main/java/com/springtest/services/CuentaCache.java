@@ -0,0 +1,127 @@
+package com.springtest.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springtest.models.Cuenta;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache de lectura de cuentas por id, acotada por tamano y por tiempo.
+ * <p>
+ * Las escrituras solo tocan la cache despues del commit y cada entrada se
+ * reemplaza unicamente por otra de {@code @Version} igual o mayor: una lectura
+ * lenta que termina despues del commit no puede volver a dejar un saldo viejo.
+ * Las cuentas eliminadas quedan como lapida hasta que expiran.
+ * Se guardan y se entregan copias, nunca la entidad administrada.
+ * <p>
+ * Como todas las escrituras de cuentas del servicio pasan por aqui,
+ * {@link #generacion()} sirve de version de la tabla completa (ETag de
+ * {@code GET /api/cuentas}). Quien escriba {@code cuentas} por otro camino
+ * (SQL directo, como los arneses de carga y de benchmarks) tiene que llamar a
+ * {@link #cambioDespuesDeCommit()}; si no, los clientes pueden seguir recibiendo
+ * 304 con una lista vieja. El perfil reactivo escribe por R2DBC sin pasar por
+ * aqui, pero sus rutas no devuelven ETag.
+ */
+@Component
+public class CuentaCache {
+
+    private static final Cuenta ELIMINADA = new Cuenta(null, null, null, Long.MAX_VALUE);
+
+    private final Cache<Long, Cuenta> cache;
+
+    // cambia despues de cada commit que modifica cuentas
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CuentaCache(@Value("${app.cache.cuentas.tamano-maximo:10000}") long tamanoMaximo,
+                       @Value("${app.cache.cuentas.ttl-ms:30000}") long ttlMs,
+                       MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "cuentas");
+    }
+
+    public Cuenta obtener(Long id, Function<Long, Cuenta> cargador) {
+        Cuenta cuenta = cache.getIfPresent(id);
+        if (cuenta == null) {
+            Cuenta cargada = cargador.apply(id);
+            if (cargada == null) {
+                return null;
+            }
+            cuenta = guardar(id, copiar(cargada));
+        }
+        return cuenta == ELIMINADA ? null : copiar(cuenta);
+    }
+
+    /**
+     * Refresca las cuentas con el estado que tengan al confirmarse la transaccion actual.
+     */
+    public void actualizarDespuesDeCommit(Collection<Cuenta> cuentas) {
+        List<Cuenta> modificadas = new ArrayList<>(cuentas);
+        despuesDeCommit(() -> modificadas.forEach(cuenta -> guardar(cuenta.getId(), copiar(cuenta))));
+    }
+
+    public void eliminarDespuesDeCommit(Long id) {
+        despuesDeCommit(() -> guardar(id, ELIMINADA));
+    }
+
+    public void eliminarDespuesDeCommit(Collection<Long> ids) {
+        despuesDeCommit(() -> ids.forEach(id -> guardar(id, ELIMINADA)));
+    }
+
+    /**
+     * Para escrituras que no dejan cuentas en la cache (altas masivas, asientos del diario).
+     */
+    public void cambioDespuesDeCommit() {
+        despuesDeCommit(() -> { });
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public void limpiar() {
+        cache.invalidateAll();
+    }
+
+    private Cuenta guardar(Long id, Cuenta cuenta) {
+        return cache.asMap().merge(id, cuenta, (actual, nueva) -> version(nueva) >= version(actual) ? nueva : actual);
+    }
+
+    private void despuesDeCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            generacion.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+                generacion.incrementAndGet();
+            }
+        });
+    }
+
+    private static long version(Cuenta cuenta) {
+        return cuenta.getVersion() == null ? -1 : cuenta.getVersion();
+    }
+
+    private static Cuenta copiar(Cuenta cuenta) {
+        return new Cuenta(cuenta.getId(), cuenta.getPersona(), cuenta.getSaldo(), cuenta.getVersion());
+    }
+}
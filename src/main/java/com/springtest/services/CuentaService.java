@@ -1,17 +1,25 @@
 package com.springtest.services;
 
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CuentaService {
 
     Cuenta findById(Long id);
+    Cuenta findByPersona(String persona);
     int revisarTotalTransferencias(Long bancoId);
-    BigDecimal revisarSaldo(Long cuentaId);
-    void transferir(Long numCuentaOrigen, Long numCuentaDestino, BigDecimal monto, Long bancoId);
+    Money revisarSaldo(Long cuentaId);
+    void transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId);
+    int transferirLote(List<TransaccionDto> transacciones);
     List<Cuenta> findAll();
+    List<Cuenta> findPagina(Long afterId, int limit);
+    void recorrerTodas(Consumer<Cuenta> consumidor);
     Cuenta save(Cuenta cuenta);
     void deleteById(Long id);
+    int deleteAllById(Collection<Long> ids);
 }
@@ -0,0 +1,199 @@
+package com.springtest.services;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.models.Transaccion;
+import com.springtest.repositories.BancoRepository;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.repositories.TransaccionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CuentaService} con {@code app.transferencias.motor=diario}: una transferencia
+ * no reescribe saldos ni el contador del banco, solo inserta un asiento en
+ * {@code transacciones}. El saldo de una cuenta es {@code cuentas.saldo} (la ultima
+ * compactacion) mas los asientos pendientes, y {@link CompactadorDiario} los va
+ * sumando. El contador del banco se lleva igual, en {@code bancos.total_transferencias}.
+ * <p>
+ * Solo se bloquea la fila de la cuenta origen, para que dos debitos concurrentes no
+ * pasen la validacion de saldo con el mismo dinero; los creditos no bloquean nada.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.transferencias.motor", havingValue = "diario")
+public class CuentaServiceDiario implements CuentaService {
+
+    private static final int PAGINA_RECORRIDO = 500;
+
+    @Autowired
+    private CuentaServiceImpl cuentaServiceImpl;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private BancoRepository bancoRepository;
+
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Cuenta findById(Long id) {
+        List<Object[]> filas = transaccionRepository.cuentaConSaldoEfectivo(id);
+        return filas.isEmpty() ? null : aCuenta(filas.get(0));
+    }
+
+    @Override
+    public Cuenta findByPersona(String persona) {
+        Cuenta cuenta = cuentaServiceImpl.findByPersona(persona);
+        return cuenta == null ? null : findById(cuenta.getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int revisarTotalTransferencias(Long bancoId) {
+        return (int) transaccionRepository.totalTransferencias(bancoId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Money revisarSaldo(Long cuentaId) {
+        BigDecimal saldo = transaccionRepository.saldoEfectivo(cuentaId);
+        if (saldo == null) {
+            throw new NoSuchElementException("Cuenta inexistente: " + cuentaId);
+        }
+        return Money.of(saldo);
+    }
+
+    @Override
+    @Transactional
+    public void transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId) {
+        cuentaRepository.findByIdParaActualizar(numCuentaOrigen)
+                .orElseThrow(() -> new NoSuchElementException("Cuenta inexistente: " + numCuentaOrigen));
+        if (revisarSaldo(numCuentaOrigen).restar(monto).esNegativo()) {
+            throw new DineroInsuficienteException("Dinero Insuficiente en la cuenta");
+        }
+        transaccionRepository.save(new Transaccion(numCuentaOrigen, numCuentaDestino, monto, bancoId));
+        // los saldos efectivos cambian sin tocar cuentas
+        cuentaCache.cambioDespuesDeCommit();
+    }
+
+    @Override
+    @Transactional
+    public int transferirLote(List<TransaccionDto> transacciones) {
+        Set<Long> origenes = transacciones.stream().map(TransaccionDto::getCuentaOrigenId).collect(Collectors.toSet());
+        Set<Long> cuentaIds = new HashSet<>(origenes);
+        transacciones.forEach(dto -> cuentaIds.add(dto.getCuentaDestinoId()));
+
+        // se bloquean solo los origenes, en orden de id
+        cuentaRepository.findAllByIdParaActualizar(origenes);
+        Map<Long, Money> saldos = new HashMap<>();
+        for (Object[] fila : transaccionRepository.saldosEfectivos(cuentaIds)) {
+            saldos.put(((Number) fila[0]).longValue(), Money.of((BigDecimal) fila[1]));
+        }
+
+        List<Transaccion> asientos = new ArrayList<>(transacciones.size());
+        for (TransaccionDto dto : transacciones) {
+            Money origen = buscarSaldo(saldos, dto.getCuentaOrigenId()).restar(dto.getMonto());
+            if (origen.esNegativo()) {
+                throw new DineroInsuficienteException("Dinero Insuficiente en la cuenta");
+            }
+            saldos.put(dto.getCuentaOrigenId(), origen);
+            saldos.put(dto.getCuentaDestinoId(), buscarSaldo(saldos, dto.getCuentaDestinoId()).sumar(dto.getMonto()));
+            asientos.add(new Transaccion(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId()));
+        }
+        // INSERT agrupados de a hibernate.jdbc.batch_size
+        transaccionRepository.saveAll(asientos);
+        cuentaCache.cambioDespuesDeCommit();
+        return transacciones.size();
+    }
+
+    private Money buscarSaldo(Map<Long, Money> saldos, Long id) {
+        Money saldo = saldos.get(id);
+        if (saldo == null) {
+            throw new NoSuchElementException("Cuenta inexistente: " + id);
+        }
+        return saldo;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Cuenta> findAll() {
+        return transaccionRepository.cuentasConSaldoEfectivo().stream()
+                .map(CuentaServiceDiario::aCuenta)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Cuenta> findPagina(Long afterId, int limit) {
+        return transaccionRepository.paginaConSaldoEfectivo(afterId, limit).stream()
+                .map(CuentaServiceDiario::aCuenta)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void recorrerTodas(Consumer<Cuenta> consumidor) {
+        List<Cuenta> pagina = findPagina(0L, PAGINA_RECORRIDO);
+        while (!pagina.isEmpty()) {
+            pagina.forEach(consumidor);
+            pagina = findPagina(pagina.get(pagina.size() - 1).getId(), PAGINA_RECORRIDO);
+        }
+    }
+
+    /**
+     * El saldo recibido es el efectivo, pero lo que se guarda es la base
+     * {@code cuentas.saldo}: se le descuentan los asientos pendientes, que la
+     * proxima compactacion vuelve a sumar. Mientras tanto se bloquean las filas de
+     * {@code bancos} como en {@link CompactadorDiario#compactar()}, asi ninguna
+     * pasada mueve la base entre la lectura y el UPDATE.
+     */
+    @Override
+    @Transactional
+    public Cuenta save(Cuenta cuenta) {
+        if (cuenta.getId() == null || cuenta.getSaldo() == null) {
+            return cuentaServiceImpl.save(cuenta);
+        }
+        bancoRepository.findAllParaActualizar();
+        Cuenta existente = cuentaRepository.findByIdParaActualizar(cuenta.getId()).orElse(null);
+        if (existente == null) {
+            return cuentaServiceImpl.save(cuenta);
+        }
+        Money pedido = cuenta.getSaldo();
+        Money pendiente = Money.of(transaccionRepository.saldoEfectivo(existente.getId())).restar(existente.getSaldo());
+        cuenta.setSaldo(pedido.restar(pendiente));
+        Cuenta guardada = cuentaServiceImpl.save(cuenta);
+        cuentaRepository.flush();
+        return new Cuenta(guardada.getId(), guardada.getPersona(), pedido, guardada.getVersion());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        cuentaServiceImpl.deleteById(id);
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        return cuentaServiceImpl.deleteAllById(ids);
+    }
+
+    private static Cuenta aCuenta(Object[] fila) {
+        return new Cuenta(((Number) fila[0]).longValue(), (String) fila[1], Money.of((BigDecimal) fila[2]),
+                ((Number) fila[3]).longValue());
+    }
+}
@@ -0,0 +1,115 @@
+package com.springtest.services;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * {@link CuentaService} con {@code app.transferencias.motor=memoria}: las transferencias
+ * y los saldos pasan por {@link LibroMayorEnMemoria}; el resto se delega en
+ * {@link CuentaServiceImpl}. Cada transferencia espera a que su lote este guardado,
+ * asi que quien llama ve el mismo contrato que con el motor sobre la base.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.transferencias.motor", havingValue = "memoria")
+public class CuentaServiceEnMemoria implements CuentaService {
+
+    @Autowired
+    private CuentaServiceImpl cuentaServiceImpl;
+
+    @Autowired
+    private LibroMayorEnMemoria libroMayor;
+
+    @Override
+    public Cuenta findById(Long id) {
+        return cuentaServiceImpl.findById(id);
+    }
+
+    @Override
+    public Cuenta findByPersona(String persona) {
+        return cuentaServiceImpl.findByPersona(persona);
+    }
+
+    @Override
+    public int revisarTotalTransferencias(Long bancoId) {
+        return cuentaServiceImpl.revisarTotalTransferencias(bancoId);
+    }
+
+    @Override
+    public Money revisarSaldo(Long cuentaId) {
+        Money saldo = libroMayor.saldo(cuentaId);
+        return saldo != null ? saldo : cuentaServiceImpl.revisarSaldo(cuentaId);
+    }
+
+    @Override
+    public void transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId) {
+        esperar(libroMayor.transferir(numCuentaOrigen, numCuentaDestino, monto, bancoId));
+    }
+
+    @Override
+    public int transferirLote(List<TransaccionDto> transacciones) {
+        esperar(libroMayor.transferirLote(transacciones));
+        return transacciones.size();
+    }
+
+    @Override
+    public List<Cuenta> findAll() {
+        return cuentaServiceImpl.findAll();
+    }
+
+    @Override
+    public List<Cuenta> findPagina(Long afterId, int limit) {
+        return cuentaServiceImpl.findPagina(afterId, limit);
+    }
+
+    @Override
+    public void recorrerTodas(Consumer<Cuenta> consumidor) {
+        cuentaServiceImpl.recorrerTodas(consumidor);
+    }
+
+    @Override
+    public Cuenta save(Cuenta cuenta) {
+        return libroMayor.escribir(idsDe(cuenta), () -> cuentaServiceImpl.save(cuenta));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        libroMayor.escribir(Collections.singletonList(id), () -> {
+            cuentaServiceImpl.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        return libroMayor.escribir(ids, () -> cuentaServiceImpl.deleteAllById(ids));
+    }
+
+    private static Collection<Long> idsDe(Cuenta cuenta) {
+        // una cuenta nueva todavia no puede estar en memoria
+        return cuenta.getId() == null ? Collections.emptyList() : Collections.singletonList(cuenta.getId());
+    }
+
+    private static void esperar(CompletableFuture<Void> resultado) {
+        try {
+            resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package com.springtest.services;
 
-import com.springtest.models.Banco;
+import com.springtest.exceptions.DineroInsuficienteException;
 import com.springtest.models.Cuenta;
-import com.springtest.repositories.BancoRepository;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
 import com.springtest.repositories.CuentaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CuentaServiceImpl implements CuentaService {
@@ -18,44 +30,188 @@ public class CuentaServiceImpl implements CuentaService {
     private CuentaRepository cuentaRepository;
 
     @Autowired
-    private BancoRepository bancoRepository;
+    private ContadorTransferencias contadorTransferencias;
 
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    @Autowired
+    private PersonaCache personaCache;
+
+    @Autowired
+    private TotalizadorCuentas totalizadorCuentas;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.transferencias.concurrencia:pesimista}")
+    private ModoConcurrencia modoConcurrencia;
 
+    @Value("${app.cuentas.eliminacion.lote:1000}")
+    private int loteEliminacion;
+
+
+    // sin @Transactional: un acierto en la cache no debe pedir una conexion
     @Override
-    @Transactional(readOnly = true)
     public Cuenta findById(Long id) {
-        return cuentaRepository.findById(id).orElse(null);
+        return cuentaCache.obtener(id, clave -> cuentaRepository.findById(clave).orElse(null));
     }
 
     @Override
     @Transactional(readOnly = true)
     public int revisarTotalTransferencias(Long bancoId) {
-        Banco banco = bancoRepository.findById(bancoId).orElse(null);
-        return banco.getTotalTransferencias();
+        return contadorTransferencias.total(bancoId);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public BigDecimal revisarSaldo(Long cuentaId) {
-        Cuenta cuenta = cuentaRepository.findById(cuentaId).orElse(null);
+    public Cuenta findByPersona(String persona) {
+        if (personaCache.esAusente(persona)) {
+            return null;
+        }
+        Long id = personaCache.buscarId(persona);
+        if (id != null) {
+            Cuenta cuenta = findById(id);
+            if (cuenta != null && persona.equals(cuenta.getPersona())) {
+                return cuenta;
+            }
+        }
+
+        long generacion = personaCache.generacion();
+        Cuenta cuenta = cuentaRepository.findByPersona(persona).orElse(null);
+        if (cuenta == null) {
+            personaCache.registrarAusente(persona, generacion);
+        } else {
+            personaCache.registrar(persona, cuenta.getId());
+        }
+        return cuenta;
+    }
+
+    @Override
+    public Money revisarSaldo(Long cuentaId) {
+        Cuenta cuenta = findById(cuentaId);
         return cuenta.getSaldo();
     }
 
     @Override
     @Transactional
-    public void transferir(Long numCuentaOrigen, Long numCuentaDestino, BigDecimal monto, Long bancoId) {
-        Cuenta cuentaOrigen = cuentaRepository.findById(numCuentaOrigen).orElse(null);
+    // dentro de una transaccion ajena (RespuestasIdempotentes.ejecutar) no se reintenta:
+    // ya quedo marcada para rollback y el conflicto lo reintenta quien la abrio
+    @Retryable(value = OptimisticLockingFailureException.class,
+            exceptionExpression = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()",
+            maxAttemptsExpression = "${app.transferencias.reintentos.maximo:5}",
+            backoff = @Backoff(delayExpression = "${app.transferencias.reintentos.espera-ms:10}",
+                    maxDelayExpression = "${app.transferencias.reintentos.espera-maxima-ms:200}",
+                    multiplier = 2, random = true))
+    public void transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId) {
+        if (modoConcurrencia == ModoConcurrencia.CONDICIONAL) {
+            transferirCondicional(numCuentaOrigen, numCuentaDestino, monto);
+            contadorTransferencias.incrementarSinLeer(bancoId, 1);
+            return;
+        }
+
+        Cuenta cuentaOrigen;
+        Cuenta cuentaDestino;
+        if (modoConcurrencia == ModoConcurrencia.OPTIMISTA) {
+            // sin bloqueo: un conflicto se detecta por @Version al hacer flush
+            cuentaOrigen = cuentaRepository.findById(numCuentaOrigen).orElse(null);
+            cuentaDestino = cuentaRepository.findById(numCuentaDestino).orElse(null);
+        } else if (numCuentaOrigen <= numCuentaDestino) {
+            // las cuentas se bloquean siempre en orden ascendente de id: A->B y B->A
+            // esperan por la misma fila primero y nunca forman un ciclo
+            cuentaOrigen = cuentaRepository.findByIdParaActualizar(numCuentaOrigen).orElse(null);
+            cuentaDestino = cuentaRepository.findByIdParaActualizar(numCuentaDestino).orElse(null);
+        } else {
+            cuentaDestino = cuentaRepository.findByIdParaActualizar(numCuentaDestino).orElse(null);
+            cuentaOrigen = cuentaRepository.findByIdParaActualizar(numCuentaOrigen).orElse(null);
+        }
+
         cuentaOrigen.debito(monto);
         cuentaRepository.save(cuentaOrigen);
 
-        Cuenta cuentaDestino = cuentaRepository.findById(numCuentaDestino).orElse(null);
         cuentaDestino.credito(monto);
         cuentaRepository.save(cuentaDestino);
 
-        Banco banco = bancoRepository.findById(bancoId).orElse(null);
-        int totalTransferencia = banco.getTotalTransferencias();
-        banco.setTotalTransferencias(++totalTransferencia);
-        bancoRepository.save(banco);
+        cuentaCache.actualizarDespuesDeCommit(Arrays.asList(cuentaOrigen, cuentaDestino));
+
+        if (modoConcurrencia == ModoConcurrencia.OPTIMISTA) {
+            // leer el banco con bloqueo haria esperar a todas las transferencias en esa fila,
+            // y leerlo sin bloqueo con @Version haria chocar a cualquier par de transferencias
+            contadorTransferencias.incrementarSinLeer(bancoId, 1);
+        } else {
+            contadorTransferencias.incrementar(bancoId, 1);
+        }
+    }
+
+    private void transferirCondicional(Long numCuentaOrigen, Long numCuentaDestino, Money monto) {
+        BigDecimal valor = monto.toBigDecimal();
+        // cada UPDATE bloquea su fila; se hacen en orden ascendente de id como en el modo
+        // pesimista. Si el debito falla despues del credito, el rollback deshace el credito
+        if (numCuentaOrigen <= numCuentaDestino) {
+            debitar(numCuentaOrigen, valor);
+            acreditar(numCuentaDestino, valor);
+        } else {
+            acreditar(numCuentaDestino, valor);
+            debitar(numCuentaOrigen, valor);
+        }
+
+        // la cache solo acepta el estado nuevo si trae su @Version
+        List<Cuenta> modificadas = cuentaRepository.leerFilas(Arrays.asList(numCuentaOrigen, numCuentaDestino)).stream()
+                .map(CuentaServiceImpl::aCuenta)
+                .collect(Collectors.toList());
+        cuentaCache.actualizarDespuesDeCommit(modificadas);
+    }
+
+    private void debitar(Long cuentaId, BigDecimal monto) {
+        if (cuentaRepository.debitar(cuentaId, monto) == 0) {
+            if (!cuentaRepository.existsById(cuentaId)) {
+                throw new NoSuchElementException("Cuenta inexistente: " + cuentaId);
+            }
+            throw new DineroInsuficienteException("Dinero Insuficiente en la cuenta");
+        }
+    }
+
+    private void acreditar(Long cuentaId, BigDecimal monto) {
+        if (cuentaRepository.acreditar(cuentaId, monto) == 0) {
+            throw new NoSuchElementException("Cuenta inexistente: " + cuentaId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int transferirLote(List<TransaccionDto> transacciones) {
+        Set<Long> cuentaIds = new HashSet<>();
+        Map<Long, Integer> transferenciasPorBanco = new HashMap<>();
+        for (TransaccionDto dto : transacciones) {
+            cuentaIds.add(dto.getCuentaOrigenId());
+            cuentaIds.add(dto.getCuentaDestinoId());
+            transferenciasPorBanco.merge(dto.getBancoId(), 1, Integer::sum);
+        }
+
+        // una sola consulta para todas las cuentas del lote, bloqueadas en orden de id
+        Map<Long, Cuenta> cuentas = cuentaRepository.findAllByIdParaActualizar(cuentaIds).stream()
+                .collect(Collectors.toMap(Cuenta::getId, Function.identity()));
+
+        for (TransaccionDto dto : transacciones) {
+            Cuenta cuentaOrigen = buscarCuenta(cuentas, dto.getCuentaOrigenId());
+            Cuenta cuentaDestino = buscarCuenta(cuentas, dto.getCuentaDestinoId());
+            cuentaOrigen.debito(dto.getMonto());
+            cuentaDestino.credito(dto.getMonto());
+        }
+        cuentaRepository.saveAll(cuentas.values());
+        cuentaCache.actualizarDespuesDeCommit(cuentas.values());
+
+        // cada banco se actualiza una sola vez por lote
+        transferenciasPorBanco.forEach(contadorTransferencias::incrementar);
+
+        return transacciones.size();
+    }
+
+    private Cuenta buscarCuenta(Map<Long, Cuenta> cuentas, Long id) {
+        Cuenta cuenta = cuentas.get(id);
+        if (cuenta == null) {
+            throw new NoSuchElementException("Cuenta inexistente: " + id);
+        }
+        return cuenta;
     }
 
 
@@ -65,16 +221,81 @@ public class CuentaServiceImpl implements CuentaService {
         return cuentaRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Cuenta> findPagina(Long afterId, int limit) {
+        return cuentaRepository.findPagina(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerTodas(Consumer<Cuenta> consumidor) {
+        try (Stream<Cuenta> cuentas = cuentaRepository.streamAll()) {
+            cuentas.forEach(cuenta -> {
+                consumidor.accept(cuenta);
+                // se suelta cada cuenta ya escrita para que el contexto de persistencia no crezca
+                entityManager.detach(cuenta);
+            });
+        }
+    }
+
     @Override
     @Transactional
     public Cuenta save(Cuenta cuenta) {
-        return cuentaRepository.save(cuenta);
+        Cuenta existente = cuenta.getId() == null ? null : cuentaRepository.findById(cuenta.getId()).orElse(null);
+        if (existente == null) {
+            // las ids las asigna la secuencia; una id desconocida es una cuenta nueva
+            cuenta.setId(null);
+            cuenta.setVersion(null);
+            Cuenta guardada = cuentaRepository.save(cuenta);
+            totalizadorCuentas.sumar(1, saldoDe(guardada));
+            cuentaCache.actualizarDespuesDeCommit(Collections.singletonList(guardada));
+            personaCache.invalidarDespuesDeCommit(guardada.getPersona());
+            return guardada;
+        }
+        // se copian los datos sobre la entidad administrada: la version del cuerpo no se usa
+        // y el UPDATE del commit lleva la version leida aca
+        Money saldoAnterior = saldoDe(existente);
+        String personaAnterior = existente.getPersona();
+        existente.setPersona(cuenta.getPersona());
+        existente.setSaldo(cuenta.getSaldo());
+        totalizadorCuentas.sumar(0, saldoDe(existente).restar(saldoAnterior));
+        cuentaCache.actualizarDespuesDeCommit(Collections.singletonList(existente));
+        personaCache.invalidarDespuesDeCommit(personaAnterior);
+        personaCache.invalidarDespuesDeCommit(existente.getPersona());
+        return existente;
     }
 
-
     @Override
     @Transactional
     public void deleteById(Long id) {
-        cuentaRepository.deleteById(id);
+        totalizadorCuentas.restarAntesDeEliminar(Collections.singletonList(id));
+        // una id inexistente no borra nada en vez de lanzar EmptyResultDataAccessException
+        cuentaRepository.eliminarPorId(id);
+        cuentaCache.eliminarDespuesDeCommit(id);
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllById(Collection<Long> ids) {
+        // un DELETE ... IN por grupo, para no pasar el limite de parametros de la sentencia
+        List<Long> distintas = new ArrayList<>(new LinkedHashSet<>(ids));
+        int eliminadas = 0;
+        for (int desde = 0; desde < distintas.size(); desde += loteEliminacion) {
+            List<Long> grupo = distintas.subList(desde, Math.min(desde + loteEliminacion, distintas.size()));
+            totalizadorCuentas.restarAntesDeEliminar(grupo);
+            eliminadas += cuentaRepository.eliminarPorIds(grupo);
+        }
+        cuentaCache.eliminarDespuesDeCommit(distintas);
+        return eliminadas;
+    }
+
+    private static Money saldoDe(Cuenta cuenta) {
+        return cuenta.getSaldo() == null ? Money.ZERO : cuenta.getSaldo();
+    }
+
+    private static Cuenta aCuenta(Object[] fila) {
+        return new Cuenta(((Number) fila[0]).longValue(), (String) fila[1], Money.of((BigDecimal) fila[2]),
+                ((Number) fila[3]).longValue());
     }
 }
@@ -0,0 +1,136 @@
+package com.springtest.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Alta masiva de cuentas leyendo el cuerpo a medida que llega (NDJSON o CSV
+ * {@code persona,saldo} segun RFC 4180, con encabezado opcional). Los INSERT se envian en lotes JDBC de
+ * {@code app.importacion.lote} y el contexto de persistencia se vacia despues
+ * de cada lote, asi que la memoria no crece con el tamano del archivo.
+ * <p>
+ * Todo el archivo es una sola transaccion: si una linea es invalida o una
+ * persona ya existe no se importa nada.
+ */
+@Service
+public class ImportacionCuentas {
+
+    // cada fila como arreglo de campos: admite comillas ("Perez, Juan") y campos vacios
+    private static final CsvMapper CSV = new CsvMapper()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.TRIM_SPACES);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonaCache personaCache;
+
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    @Autowired
+    private TotalizadorCuentas totalizadorCuentas;
+
+    @Value("${app.importacion.lote:1000}")
+    private int lote;
+
+    @Transactional(rollbackFor = IOException.class)
+    public int importarNdjson(InputStream entrada) throws IOException {
+        prepararLotes();
+        int total = 0;
+        Money suma = Money.ZERO;
+        try (MappingIterator<Cuenta> cuentas = objectMapper.readerFor(Cuenta.class).readValues(entrada)) {
+            while (cuentas.hasNextValue()) {
+                suma = suma.sumar(guardar(cuentas.nextValue(), ++total));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cuenta invalida en la linea "
+                    + e.getLocation().getLineNr() + ": " + e.getOriginalMessage(), e);
+        }
+        return terminar(total, suma);
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public int importarCsv(InputStream entrada) throws IOException {
+        prepararLotes();
+        int total = 0;
+        Money suma = Money.ZERO;
+        try (MappingIterator<String[]> filas = CSV.readerFor(String[].class).readValues(entrada)) {
+            boolean primera = true;
+            while (filas.hasNextValue()) {
+                String[] campos = filas.nextValue();
+                int numeroLinea = filas.getParser().getTokenLocation().getLineNr();
+                if (primera && campos.length > 0 && "persona".equalsIgnoreCase(campos[0])) {
+                    primera = false;
+                    continue;
+                }
+                primera = false;
+                suma = suma.sumar(guardar(leerFila(campos, numeroLinea), ++total));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("CSV invalido en la linea "
+                    + e.getLocation().getLineNr() + ": " + e.getOriginalMessage(), e);
+        }
+        return terminar(total, suma);
+    }
+
+    private Cuenta leerFila(String[] campos, int numeroLinea) {
+        if (campos.length != 2) {
+            throw new IllegalArgumentException("Se esperaba persona,saldo en la linea " + numeroLinea);
+        }
+        try {
+            return new Cuenta(null, campos[0], Money.of(campos[1]));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Saldo invalido en la linea " + numeroLinea + ": " + campos[1], e);
+        }
+    }
+
+    private void prepararLotes() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(lote);
+    }
+
+    private Money guardar(Cuenta cuenta, int numero) {
+        if (cuenta.getPersona() == null || cuenta.getPersona().isEmpty() || cuenta.getSaldo() == null) {
+            throw new IllegalArgumentException("La cuenta " + numero + " necesita persona y saldo");
+        }
+        // las ids las asigna la secuencia, nunca el archivo
+        cuenta.setId(null);
+        cuenta.setVersion(null);
+        entityManager.persist(cuenta);
+        if (numero % lote == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return cuenta.getSaldo();
+    }
+
+    private int terminar(int total, Money suma) {
+        totalizadorCuentas.sumar(total, suma);
+        entityManager.flush();
+        entityManager.clear();
+        // las personas importadas pudieron estar guardadas como ausentes
+        personaCache.invalidarAusentesDespuesDeCommit();
+        cuentaCache.cambioDespuesDeCommit();
+        return total;
+    }
+}
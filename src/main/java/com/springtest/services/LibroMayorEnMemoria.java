@@ -0,0 +1,414 @@
+package com.springtest.services;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.repositories.CuentaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Motor de transferencias con un unico escritor. Los saldos de todas las cuentas
+ * viven en memoria y solo los modifica el hilo secuenciador, que toma las
+ * operaciones de un {@link AnilloOperaciones} en orden de llegada: no hay
+ * bloqueos de filas ni una ida a la base por transferencia.
+ * <p>
+ * Cada vuelta del secuenciador aplica en memoria todo lo que encuentra en el
+ * anillo y entrega el resultado como un lote al hilo de persistencia, que escribe
+ * los saldos finales de las cuentas tocadas y los contadores de los bancos en una
+ * sola transaccion. El futuro de cada transferencia se completa cuando su lote
+ * queda confirmado en la base.
+ * <p>
+ * Las altas, modificaciones y bajas de cuentas pasan por {@link #escribir}, que
+ * detiene el secuenciador mientras se hacen.
+ * <p>
+ * Si un lote no se puede guardar, ese lote y los que ya se armaron sobre el fallan,
+ * y el secuenciador reconstruye los saldos desde la base antes de seguir. La misma
+ * reconstruccion se hace al arrancar.
+ */
+@Component
+@ConditionalOnProperty(name = "app.transferencias.motor", havingValue = "memoria")
+public class LibroMayorEnMemoria {
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private ContadorTransferencias contadorTransferencias;
+
+    @Autowired
+    private CuentaCache cuentaCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.transferencias.memoria.capacidad:8192}")
+    private int capacidad;
+
+    @Value("${app.transferencias.memoria.lote-maximo:1024}")
+    private int loteMaximo;
+
+    // solo el secuenciador escribe; los demas hilos leen saldos ya aplicados
+    private final Map<Long, Saldo> saldos = new ConcurrentHashMap<>();
+
+    private AnilloOperaciones<Operacion> anillo;
+    private BlockingQueue<LotePersistencia> pendientes;
+    private Thread secuenciador;
+    private Thread persistidor;
+
+    private volatile boolean activo;
+    // hilos dentro de publicar(): el secuenciador no termina mientras alguno pueda dejar una operacion
+    private final AtomicInteger publicando = new AtomicInteger();
+    private volatile boolean durmiendo;
+    private volatile boolean persistenciaFallida;
+    private volatile long lotesEnviados;
+    private volatile long lotesTerminados;
+
+    @PostConstruct
+    public void iniciar() {
+        anillo = new AnilloOperaciones<>(capacidad);
+        pendientes = new ArrayBlockingQueue<>(64);
+        recargar();
+        activo = true;
+        secuenciador = new Thread(this::secuenciar, "libro-mayor-secuenciador");
+        persistidor = new Thread(this::persistir, "libro-mayor-persistencia");
+        secuenciador.start();
+        persistidor.start();
+    }
+
+    /**
+     * Deja de aceptar operaciones y espera a que lo ya recibido quede en la base.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(secuenciador);
+        secuenciador.join();
+        persistidor.join();
+    }
+
+    public CompletableFuture<Void> transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId) {
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(numCuentaOrigen);
+        dto.setCuentaDestinoId(numCuentaDestino);
+        dto.setMonto(monto);
+        dto.setBancoId(bancoId);
+        return transferirLote(Collections.singletonList(dto));
+    }
+
+    /**
+     * El lote se aplica completo o no se aplica.
+     */
+    public CompletableFuture<Void> transferirLote(List<TransaccionDto> transacciones) {
+        return publicar(new Operacion(TipoOperacion.TRANSFERIR, transacciones, null));
+    }
+
+    /**
+     * Hace una escritura de cuentas fuera del motor (alta, modificacion o baja) con
+     * el secuenciador detenido: antes se confirman en la base todos los lotes ya
+     * aplicados y despues se descartan de memoria los saldos de {@code cuentaIds},
+     * que se vuelven a leer de la base la proxima vez que se usen. Asi ningun lote
+     * anterior pisa lo escrito y ninguna transferencia posterior parte de un saldo
+     * anterior a la escritura. La escritura corre en el hilo de quien llama.
+     */
+    public <T> T escribir(Collection<Long> cuentaIds, Supplier<T> escritura) {
+        Operacion pausa = new Operacion(TipoOperacion.ESCRIBIR, null, cuentaIds);
+        try {
+            publicar(pausa).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        try {
+            return escritura.get();
+        } finally {
+            pausa.escrita.complete(null);
+        }
+    }
+
+    /**
+     * Espera a que termine la persistencia pendiente y reconstruye todos los saldos desde la base.
+     */
+    public CompletableFuture<Void> recuperar() {
+        return publicar(new Operacion(TipoOperacion.RECUPERAR, null, null));
+    }
+
+    /**
+     * Saldo con todas las transferencias ya aplicadas, incluidas las que todavia
+     * no terminaron de persistirse. {@code null} si la cuenta no esta en memoria.
+     */
+    public Money saldo(Long cuentaId) {
+        Saldo saldo = saldos.get(cuentaId);
+        return saldo == null ? null : Money.deCentavos(saldo.centavos);
+    }
+
+    private CompletableFuture<Void> publicar(Operacion operacion) {
+        // se anuncia antes de mirar activo: si el secuenciador ve publicando == 0 despues
+        // de detener(), este hilo ya publico o todavia va a ver activo == false
+        publicando.incrementAndGet();
+        try {
+            if (!activo) {
+                throw new IllegalStateException("El libro mayor esta detenido");
+            }
+            anillo.publicar(operacion);
+        } finally {
+            publicando.decrementAndGet();
+        }
+        if (durmiendo) {
+            LockSupport.unpark(secuenciador);
+        }
+        return operacion.resultado;
+    }
+
+    private void secuenciar() {
+        List<Operacion> operaciones = new ArrayList<>(loteMaximo);
+        while (activo || publicando.get() > 0 || !anillo.vacio()) {
+            if (anillo.drenar(operaciones::add, loteMaximo) == 0) {
+                esperarOperaciones();
+                continue;
+            }
+            if (persistenciaFallida) {
+                try {
+                    recuperarDesdeLaBase();
+                } catch (RuntimeException e) {
+                    operaciones.forEach(operacion -> operacion.resultado.completeExceptionally(e));
+                    operaciones.clear();
+                    continue;
+                }
+            }
+            LotePersistencia lote = new LotePersistencia();
+            for (Operacion operacion : operaciones) {
+                aplicar(operacion, lote);
+            }
+            operaciones.clear();
+            if (!lote.futuros.isEmpty()) {
+                enviar(lote);
+            }
+        }
+        enviar(LotePersistencia.FIN);
+    }
+
+    private void esperarOperaciones() {
+        durmiendo = true;
+        if (anillo.vacio() && activo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        durmiendo = false;
+    }
+
+    private void aplicar(Operacion operacion, LotePersistencia lote) {
+        try {
+            switch (operacion.tipo) {
+                case TRANSFERIR:
+                    aplicarTransferencias(operacion, lote);
+                    break;
+                case ESCRIBIR:
+                    if (!lote.futuros.isEmpty()) {
+                        enviar(lote.separar());
+                    }
+                    esperarPersistencia();
+                    operacion.resultado.complete(null);
+                    operacion.escrita.join();
+                    operacion.cuentaIds.forEach(saldos::remove);
+                    if (persistenciaFallida) {
+                        recuperarDesdeLaBase();
+                    }
+                    break;
+                case RECUPERAR:
+                    // lo ya aplicado en esta vuelta tiene que llegar a la base antes de releerla
+                    if (!lote.futuros.isEmpty()) {
+                        enviar(lote.separar());
+                    }
+                    recuperarDesdeLaBase();
+                    operacion.resultado.complete(null);
+                    break;
+            }
+        } catch (RuntimeException e) {
+            operacion.resultado.completeExceptionally(e);
+        }
+    }
+
+    private void aplicarTransferencias(Operacion operacion, LotePersistencia lote) {
+        // primero sobre una copia: si una transferencia falla no se aplica ninguna del lote
+        Map<Long, Long> nuevos = new HashMap<>();
+        Map<Long, Integer> transferenciasPorBanco = new HashMap<>();
+        for (TransaccionDto dto : operacion.transacciones) {
+            long centavos = dto.getMonto().getCentavos();
+            long origen = nuevos.containsKey(dto.getCuentaOrigenId())
+                    ? nuevos.get(dto.getCuentaOrigenId()) : buscarSaldo(dto.getCuentaOrigenId()).centavos;
+            long destino = nuevos.containsKey(dto.getCuentaDestinoId())
+                    ? nuevos.get(dto.getCuentaDestinoId()) : buscarSaldo(dto.getCuentaDestinoId()).centavos;
+            if (origen - centavos < 0) {
+                throw new DineroInsuficienteException("Dinero Insuficiente en la cuenta");
+            }
+            nuevos.put(dto.getCuentaOrigenId(), origen - centavos);
+            nuevos.put(dto.getCuentaDestinoId(), Math.addExact(destino, centavos));
+            transferenciasPorBanco.merge(dto.getBancoId(), 1, Integer::sum);
+        }
+        nuevos.forEach((id, centavos) -> saldos.get(id).centavos = centavos);
+        lote.saldos.putAll(nuevos);
+        transferenciasPorBanco.forEach((bancoId, cantidad) -> lote.transferenciasPorBanco.merge(bancoId, cantidad, Integer::sum));
+        lote.futuros.add(operacion.resultado);
+    }
+
+    private Saldo buscarSaldo(Long cuentaId) {
+        Saldo saldo = saldos.get(cuentaId);
+        if (saldo == null) {
+            // cuenta creada despues del arranque o escrita con escribir()
+            Cuenta cuenta = cuentaRepository.findById(cuentaId)
+                    .orElseThrow(() -> new NoSuchElementException("Cuenta inexistente: " + cuentaId));
+            saldo = new Saldo(cuenta.getSaldo().getCentavos());
+            saldos.put(cuentaId, saldo);
+        }
+        return saldo;
+    }
+
+    private void enviar(LotePersistencia lote) {
+        try {
+            pendientes.put(lote);
+            lotesEnviados++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al entregar un lote", e);
+        }
+    }
+
+    private void recuperarDesdeLaBase() {
+        esperarPersistencia();
+        recargar();
+        persistenciaFallida = false;
+    }
+
+    private void esperarPersistencia() {
+        while (lotesTerminados < lotesEnviados) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void recargar() {
+        saldos.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Cuenta> cuentas = cuentaRepository.streamAll()) {
+                cuentas.forEach(cuenta -> {
+                    saldos.put(cuenta.getId(), new Saldo(cuenta.getSaldo().getCentavos()));
+                    entityManager.detach(cuenta);
+                });
+            }
+        });
+    }
+
+    private void persistir() {
+        while (true) {
+            LotePersistencia lote;
+            try {
+                lote = pendientes.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lote == LotePersistencia.FIN) {
+                return;
+            }
+            try {
+                if (persistenciaFallida) {
+                    // armado sobre saldos que incluyen un lote que no se pudo guardar
+                    throw new IllegalStateException("Lote descartado tras un fallo de persistencia");
+                }
+                guardar(lote);
+                lote.futuros.forEach(futuro -> futuro.complete(null));
+            } catch (RuntimeException e) {
+                persistenciaFallida = true;
+                lote.futuros.forEach(futuro -> futuro.completeExceptionally(e));
+            } finally {
+                lotesTerminados++;
+            }
+        }
+    }
+
+    private void guardar(LotePersistencia lote) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Cuenta> cuentas = cuentaRepository.findAllById(lote.saldos.keySet());
+            if (cuentas.size() != lote.saldos.size()) {
+                throw new NoSuchElementException("Cuenta eliminada con transferencias pendientes");
+            }
+            cuentas.forEach(cuenta -> cuenta.setSaldo(Money.deCentavos(lote.saldos.get(cuenta.getId()))));
+            cuentaRepository.saveAll(cuentas);
+            cuentaCache.actualizarDespuesDeCommit(cuentas);
+            lote.transferenciasPorBanco.forEach(contadorTransferencias::incrementar);
+        });
+    }
+
+    private enum TipoOperacion {
+        TRANSFERIR, ESCRIBIR, RECUPERAR
+    }
+
+    private static final class Operacion {
+        private final TipoOperacion tipo;
+        private final List<TransaccionDto> transacciones;
+        private final Collection<Long> cuentaIds;
+        private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+        // ESCRIBIR: se completa cuando quien llamo termino su escritura
+        private final CompletableFuture<Void> escrita = new CompletableFuture<>();
+
+        private Operacion(TipoOperacion tipo, List<TransaccionDto> transacciones, Collection<Long> cuentaIds) {
+            this.tipo = tipo;
+            this.transacciones = transacciones;
+            this.cuentaIds = cuentaIds;
+        }
+    }
+
+    private static final class Saldo {
+        private volatile long centavos;
+
+        private Saldo(long centavos) {
+            this.centavos = centavos;
+        }
+    }
+
+    private static final class LotePersistencia {
+        private static final LotePersistencia FIN = new LotePersistencia();
+
+        private Map<Long, Long> saldos = new HashMap<>();
+        private Map<Long, Integer> transferenciasPorBanco = new HashMap<>();
+        private List<CompletableFuture<Void>> futuros = new ArrayList<>();
+
+        /**
+         * Entrega el contenido acumulado como un lote nuevo y deja este vacio.
+         */
+        private LotePersistencia separar() {
+            LotePersistencia separado = new LotePersistencia();
+            separado.saldos = saldos;
+            separado.transferenciasPorBanco = transferenciasPorBanco;
+            separado.futuros = futuros;
+            saldos = new HashMap<>();
+            transferenciasPorBanco = new HashMap<>();
+            futuros = new ArrayList<>();
+            return separado;
+        }
+    }
+}
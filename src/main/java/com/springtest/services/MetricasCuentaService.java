@@ -0,0 +1,67 @@
+package com.springtest.services;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide cada metodo de {@link CuentaService} con el timer {@code cuentas.servicio}
+ * (tags {@code metodo} y {@code excepcion}) y cuenta los rechazos por
+ * {@link DineroInsuficienteException}. Es el aspecto mas externo, asi que el
+ * tiempo incluye los reintentos y el commit de la transaccion.
+ * <p>
+ * El histograma y los limites de SLO se configuran con
+ * {@code management.metrics.distribution.*.cuentas.servicio}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasCuentaService {
+
+    private final MeterRegistry registry;
+    private final Counter dineroInsuficiente;
+
+    // los servicios de los motores memoria y diario delegan en CuentaServiceImpl:
+    // solo se mide la llamada exterior
+    private final ThreadLocal<Boolean> midiendo = new ThreadLocal<>();
+
+    public MetricasCuentaService(MeterRegistry registry) {
+        this.registry = registry;
+        this.dineroInsuficiente = Counter.builder("transferencias.dinero.insuficiente")
+                .description("Transferencias rechazadas por saldo insuficiente")
+                .register(registry);
+    }
+
+    @Around("execution(* com.springtest.services.CuentaService.*(..))")
+    public Object medir(ProceedingJoinPoint llamada) throws Throwable {
+        if (midiendo.get() != null) {
+            return llamada.proceed();
+        }
+        midiendo.set(Boolean.TRUE);
+        Timer.Sample muestra = Timer.start(registry);
+        String excepcion = "none";
+        try {
+            return llamada.proceed();
+        } catch (Throwable e) {
+            excepcion = e.getClass().getSimpleName();
+            if (e instanceof DineroInsuficienteException) {
+                dineroInsuficiente.increment();
+            }
+            throw e;
+        } finally {
+            midiendo.remove();
+            muestra.stop(Timer.builder("cuentas.servicio")
+                    .description("Duracion de los metodos de CuentaService")
+                    .tag("metodo", llamada.getSignature().getName())
+                    .tag("excepcion", excepcion)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.springtest.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cuenta los reintentos de transferencias por conflicto de version y las
+ * transferencias que agotaron todos sus intentos.
+ * <p>
+ * spring-retry busca los {@code RetryListener} mientras se registran los
+ * post-procesadores, antes de que Boot configure el {@link MeterRegistry}; por
+ * eso el registro se pide recien en el primer reintento; pedirlo en el
+ * constructor lo crea sin los filtros de {@code management.metrics.*}.
+ */
+@Component
+public class MetricasReintentos extends RetryListenerSupport {
+
+    private final ObjectProvider<MeterRegistry> registro;
+    private volatile Counter reintentos;
+    private volatile Counter agotados;
+
+    public MetricasReintentos(ObjectProvider<MeterRegistry> registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        // el ultimo intento fallido no cuenta como reintento
+        int realizados = context.getRetryCount() - (throwable != null ? 1 : 0);
+        if (realizados > 0) {
+            reintentos().increment(realizados);
+        }
+        if (throwable instanceof OptimisticLockingFailureException) {
+            agotados().increment();
+        }
+    }
+
+    private Counter reintentos() {
+        if (reintentos == null) {
+            reintentos = Counter.builder("transferencias.reintentos")
+                    .description("Reintentos por conflicto de version")
+                    .register(registro.getObject());
+        }
+        return reintentos;
+    }
+
+    private Counter agotados() {
+        if (agotados == null) {
+            agotados = Counter.builder("transferencias.reintentos.agotados")
+                    .description("Transferencias que fallaron tras agotar los reintentos")
+                    .register(registro.getObject());
+        }
+        return agotados;
+    }
+}
@@ -0,0 +1,23 @@
+package com.springtest.services;
+
+/**
+ * Forma en que {@link CuentaService#transferir} obtiene las cuentas que modifica.
+ * Se elige con la propiedad {@code app.transferencias.concurrencia}.
+ */
+public enum ModoConcurrencia {
+
+    /** {@code SELECT ... FOR UPDATE} en orden ascendente de id. */
+    PESIMISTA,
+
+    /**
+     * Lectura sin bloqueo; el {@code @Version} detecta conflictos y la transferencia se reintenta.
+     * El contador del banco se suma con un {@code UPDATE} sin leer la fila antes.
+     */
+    OPTIMISTA,
+
+    /**
+     * Sin cargar las cuentas: {@code UPDATE} condicional del saldo de origen
+     * (0 filas es saldo insuficiente) y {@code UPDATE} directo del destino.
+     */
+    CONDICIONAL
+}
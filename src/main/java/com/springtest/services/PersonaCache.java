@@ -0,0 +1,124 @@
+package com.springtest.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de busquedas por persona: guarda el id encontrado (positivo) o que la
+ * persona no existe (negativo). Los datos de la cuenta salen de {@link CuentaCache},
+ * asi que un id positivo solo se usa si la cuenta sigue teniendo esa persona.
+ */
+@Component
+public class PersonaCache {
+
+    private final Cache<String, Long> positivos;
+    private final Cache<String, Boolean> negativos;
+
+    // cambia con cada alta o modificacion; una ausencia leida antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    public PersonaCache(@Value("${app.cache.personas.tamano-maximo:10000}") long tamanoMaximo,
+                        @Value("${app.cache.personas.ttl-ms:60000}") long ttlMs,
+                        @Value("${app.cache.personas.ttl-negativo-ms:5000}") long ttlNegativoMs,
+                        MeterRegistry registry) {
+        this.positivos = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.negativos = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttlNegativoMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, positivos, "personas");
+        CaffeineCacheMetrics.monitor(registry, negativos, "personas.ausentes");
+    }
+
+    public Long buscarId(String persona) {
+        return positivos.getIfPresent(persona);
+    }
+
+    public boolean esAusente(String persona) {
+        return negativos.getIfPresent(persona) != null;
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public void registrar(String persona, Long id) {
+        positivos.put(persona, id);
+    }
+
+    /**
+     * Guarda la ausencia solo si no hubo altas desde {@code generacionLeida}.
+     */
+    public void registrarAusente(String persona, long generacionLeida) {
+        if (generacion.get() != generacionLeida) {
+            return;
+        }
+        negativos.put(persona, Boolean.TRUE);
+        // un alta pudo invalidar entre la comprobacion y el put
+        if (generacion.get() != generacionLeida) {
+            negativos.invalidate(persona);
+        }
+    }
+
+    public void invalidarDespuesDeCommit(String persona) {
+        if (persona == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(persona);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar(persona);
+            }
+        });
+    }
+
+    /**
+     * Para altas masivas: descarta todas las ausencias en vez de una persona por alta.
+     */
+    public void invalidarAusentesDespuesDeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarAusentes();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidarAusentes();
+            }
+        });
+    }
+
+    public void limpiar() {
+        positivos.invalidateAll();
+        negativos.invalidateAll();
+    }
+
+    private void invalidar(String persona) {
+        generacion.incrementAndGet();
+        negativos.invalidate(persona);
+        positivos.invalidate(persona);
+    }
+
+    private void invalidarAusentes() {
+        generacion.incrementAndGet();
+        negativos.invalidateAll();
+    }
+}
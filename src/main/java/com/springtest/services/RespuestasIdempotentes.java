@@ -0,0 +1,116 @@
+package com.springtest.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springtest.models.RespuestaIdempotente;
+import com.springtest.repositories.RespuestaIdempotenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respuestas ya entregadas por {@code Idempotency-Key}. La tabla
+ * {@code respuestas_idempotentes} es la fuente de verdad: la clave se inserta en la
+ * misma transaccion que la operacion, asi que dos pedidos con la misma clave no
+ * pueden ejecutarla dos veces. Delante hay una cache acotada por memoria y por
+ * tiempo para que las repeticiones no toquen la base.
+ */
+@Component
+public class RespuestasIdempotentes {
+
+    @Autowired
+    private RespuestaIdempotenteRepository repository;
+
+    private final Cache<String, String> cache;
+    private final long ttlMs;
+    private final Counter repeticionesEnMemoria;
+    private final Counter repeticionesEnBase;
+
+    public RespuestasIdempotentes(@Value("${app.idempotencia.memoria-maxima-bytes:16777216}") long memoriaMaxima,
+                                  @Value("${app.idempotencia.ttl-ms:86400000}") long ttlMs,
+                                  MeterRegistry registry) {
+        this.ttlMs = ttlMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(memoriaMaxima)
+                .weigher(RespuestasIdempotentes::bytesAproximados)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "idempotencia");
+        Gauge.builder("idempotencia.memoria", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .baseUnit("bytes")
+                .register(registry);
+        this.repeticionesEnMemoria = registry.counter("idempotencia.repeticiones", "origen", "memoria");
+        this.repeticionesEnBase = registry.counter("idempotencia.repeticiones", "origen", "base");
+    }
+
+    /**
+     * Respuesta guardada para la clave, o {@code null} si la operacion todavia no se hizo.
+     */
+    public String buscar(String clave) {
+        String cuerpo = cache.getIfPresent(clave);
+        if (cuerpo != null) {
+            repeticionesEnMemoria.increment();
+            return cuerpo;
+        }
+        cuerpo = repository.findByClave(clave).map(RespuestaIdempotente::getCuerpo).orElse(null);
+        if (cuerpo != null) {
+            repeticionesEnBase.increment();
+            cache.put(clave, cuerpo);
+        }
+        return cuerpo;
+    }
+
+    /**
+     * Reserva la clave, ejecuta la operacion y deja la respuesta guardada al confirmar.
+     * Si otro pedido ya reservo la clave falla con {@code DataIntegrityViolationException}
+     * antes de ejecutar nada.
+     * <p>
+     * La operacion se une a esta transaccion, asi que un conflicto de {@code @Version}
+     * recien aparece en el commit: el reintento envuelve a todo el metodo y cada intento
+     * vuelve a reservar la clave en una transaccion nueva.
+     */
+    @Transactional
+    @Retryable(value = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${app.transferencias.reintentos.maximo:5}",
+            backoff = @Backoff(delayExpression = "${app.transferencias.reintentos.espera-ms:10}",
+                    maxDelayExpression = "${app.transferencias.reintentos.espera-maxima-ms:200}",
+                    multiplier = 2, random = true))
+    public String ejecutar(String clave, String cuerpo, Runnable operacion) {
+        repository.saveAndFlush(new RespuestaIdempotente(null, clave, cuerpo, LocalDateTime.now()));
+        operacion.run();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(clave, cuerpo);
+            }
+        });
+        return cuerpo;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotencia.purga-ms:60000}")
+    @Transactional
+    public void purgar() {
+        repository.eliminarAnteriores(LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    }
+
+    private static int bytesAproximados(String clave, String cuerpo) {
+        // caracteres UTF-16 mas la cabecera de los dos String
+        return 2 * (clave.length() + cuerpo.length()) + 80;
+    }
+}
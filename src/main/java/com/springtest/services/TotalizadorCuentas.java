@@ -0,0 +1,66 @@
+package com.springtest.services;
+
+import com.springtest.models.Money;
+import com.springtest.models.TotalCuentas;
+import com.springtest.repositories.TotalCuentasRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene {@link TotalCuentas}: cada alta, cambio de saldo o baja suma su
+ * diferencia con un {@code UPDATE} en la misma transaccion, asi leer el total
+ * es una consulta por clave en vez de recorrer las cuentas. La fila se bloquea
+ * hasta el commit, por lo que las altas y bajas concurrentes se esperan entre si.
+ * <p>
+ * Lo que escribe cuentas por fuera del servicio (SQL directo, el perfil
+ * reactivo) no pasa por aqui; {@link #recalcular()} permite detectar esa diferencia.
+ */
+@Component
+public class TotalizadorCuentas {
+
+    @Autowired
+    private TotalCuentasRepository repository;
+
+    /**
+     * Debe llamarse dentro de la transaccion que modifica las cuentas.
+     */
+    public void sumar(long cuentas, Money saldo) {
+        if (cuentas == 0 && saldo.getCentavos() == 0) {
+            return;
+        }
+        if (repository.sumar(cuentas, saldo.toBigDecimal()) == 0) {
+            throw new IllegalStateException("Falta la fila de totales_cuentas");
+        }
+    }
+
+    /**
+     * Resta las cuentas antes de eliminarlas y las deja bloqueadas hasta el commit.
+     */
+    public void restarAntesDeEliminar(Collection<Long> ids) {
+        List<BigDecimal> saldos = repository.saldosParaEliminar(ids);
+        if (saldos.isEmpty()) {
+            return;
+        }
+        BigDecimal total = saldos.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        sumar(-saldos.size(), Money.of(total.negate()));
+    }
+
+    @Transactional(readOnly = true)
+    public TotalCuentas totales() {
+        return repository.findById(TotalCuentas.ID).orElse(null);
+    }
+
+    /**
+     * Los totales recalculados desde la tabla de cuentas, para compararlos con {@link #totales()}.
+     */
+    @Transactional(readOnly = true)
+    public TotalCuentas recalcular() {
+        Object[] fila = repository.contar().get(0);
+        return new TotalCuentas(TotalCuentas.ID, ((Number) fila[0]).longValue(), Money.of(new BigDecimal(fila[1].toString())));
+    }
+}
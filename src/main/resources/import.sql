@@ -1,3 +1,6 @@
-INSERT INTO cuentas (persona, saldo) VALUES ( 'christian', 1000 );
-INSERT INTO cuentas (persona, saldo) VALUES ( 'juana', 2000 );
-INSERT INTO bancos (nombre, total_transferencias) VALUES ( 'Finandina', 0 );
\ No newline at end of file
+INSERT INTO cuentas (id, persona, saldo, version) VALUES ( 1, 'christian', 1000, 0 );
+INSERT INTO cuentas (id, persona, saldo, version) VALUES ( 2, 'juana', 2000, 0 );
+INSERT INTO bancos (id, nombre, total_transferencias, version) VALUES ( 1, 'Finandina', 0, 0 );
+INSERT INTO totales_cuentas (id, cuentas, saldo_total) VALUES ( 1, 2, 3000 );
+ALTER SEQUENCE cuentas_seq RESTART WITH 3;
+ALTER SEQUENCE bancos_seq RESTART WITH 2;
@@ -0,0 +1,67 @@
+package com.springtest.reactivo;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.TransaccionDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.CREATED;
+
+@Component
+@Profile("reactivo")
+public class CuentaHandler {
+
+    @Autowired
+    private CuentasReactivas cuentas;
+
+    public Mono<ServerResponse> detalle(ServerRequest request) {
+        return cuentas.findById(Long.valueOf(request.pathVariable("id")))
+                .flatMap(cuenta -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(cuenta))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> transferir(ServerRequest request) {
+        return request.bodyToMono(TransaccionDto.class)
+                .flatMap(dto -> cuentas.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId())
+                        .then(Mono.fromSupplier(() -> {
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("date", LocalDate.now().toString());
+                            response.put("status", "OK");
+                            response.put("mensaje", "Transferencia realizada con exito");
+                            response.put("transaccion", dto);
+                            return response;
+                        })))
+                .flatMap(response -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response));
+    }
+
+    // el arreglo JSON se escribe a medida que llegan las filas, al ritmo que acepta el cliente
+    public Mono<ServerResponse> listar(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(cuentas.findAll(), Cuenta.class);
+    }
+
+    public Mono<ServerResponse> buscarPorPersona(ServerRequest request) {
+        return cuentas.findByPersona(request.queryParam("persona").orElse(null))
+                .flatMap(cuenta -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(cuenta))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> guardar(ServerRequest request) {
+        return request.bodyToMono(Cuenta.class)
+                .flatMap(cuentas::save)
+                .flatMap(cuenta -> ServerResponse.status(CREATED).contentType(MediaType.APPLICATION_JSON).bodyValue(cuenta));
+    }
+
+    public Mono<ServerResponse> eliminar(ServerRequest request) {
+        return cuentas.deleteById(Long.valueOf(request.pathVariable("id")))
+                .then(ServerResponse.noContent().build());
+    }
+}
@@ -0,0 +1,135 @@
+package com.springtest.reactivo;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Acceso a {@code cuentas} y {@code bancos} con R2DBC. Las reglas de saldo son las
+ * de {@link Cuenta}; {@code transferir} bloquea las dos cuentas en orden de id y
+ * despues la fila del banco, igual que {@code CuentaServiceImpl}.
+ */
+@Component
+@Profile("reactivo")
+public class CuentasReactivas {
+
+    private static final String COLUMNAS = "select id, persona, saldo, version from cuentas";
+    private static final int BLOQUE_IDS = 50;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator operadorTransaccional;
+
+    // los mismos bloques de cuentas_seq que usa Hibernate (pooled-lo)
+    private long siguienteId;
+    private long finBloque;
+
+    public Mono<Cuenta> findById(Long id) {
+        return databaseClient.sql(COLUMNAS + " where id = :id")
+                .bind("id", id)
+                .map(CuentasReactivas::aCuenta)
+                .one();
+    }
+
+    public Mono<Cuenta> findByPersona(String persona) {
+        return databaseClient.sql(COLUMNAS + " where persona = :persona")
+                .bind("persona", persona)
+                .map(CuentasReactivas::aCuenta)
+                .one();
+    }
+
+    public Flux<Cuenta> findAll() {
+        return databaseClient.sql(COLUMNAS + " order by id")
+                .map(CuentasReactivas::aCuenta)
+                .all();
+    }
+
+    public Mono<Void> transferir(Long numCuentaOrigen, Long numCuentaDestino, Money monto, Long bancoId) {
+        Mono<Void> transferencia = databaseClient.sql(COLUMNAS + " where id in (:ids) order by id for update")
+                .bind("ids", Arrays.asList(numCuentaOrigen, numCuentaDestino))
+                .map(CuentasReactivas::aCuenta)
+                .all()
+                .collectMap(Cuenta::getId)
+                .flatMap(cuentas -> {
+                    Cuenta cuentaOrigen = cuentas.get(numCuentaOrigen);
+                    Cuenta cuentaDestino = cuentas.get(numCuentaDestino);
+                    if (cuentaOrigen == null || cuentaDestino == null) {
+                        return Mono.error(new NoSuchElementException("Cuenta inexistente"));
+                    }
+                    cuentaOrigen.debito(monto);
+                    cuentaDestino.credito(monto);
+                    return actualizarSaldo(cuentaOrigen)
+                            .then(actualizarSaldo(cuentaDestino))
+                            .then(databaseClient.sql("update bancos set total_transferencias = total_transferencias + 1 where id = :id")
+                                    .bind("id", bancoId)
+                                    .then());
+                });
+        return operadorTransaccional.transactional(transferencia);
+    }
+
+    public Mono<Cuenta> save(Cuenta cuenta) {
+        if (cuenta.getId() == null) {
+            return siguienteId().flatMap(id -> databaseClient.sql("insert into cuentas (id, persona, saldo, version) values (:id, :persona, :saldo, 0)")
+                    .bind("id", id)
+                    .bind("persona", cuenta.getPersona())
+                    .bind("saldo", cuenta.getSaldo().toBigDecimal())
+                    .then()
+                    .thenReturn(new Cuenta(id, cuenta.getPersona(), cuenta.getSaldo(), 0L)));
+        }
+        return databaseClient.sql("update cuentas set persona = :persona, saldo = :saldo, version = version + 1 where id = :id")
+                .bind("persona", cuenta.getPersona())
+                .bind("saldo", cuenta.getSaldo().toBigDecimal())
+                .bind("id", cuenta.getId())
+                .then()
+                .then(findById(cuenta.getId()));
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return databaseClient.sql("delete from cuentas where id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    private Mono<Long> siguienteId() {
+        synchronized (this) {
+            if (siguienteId < finBloque) {
+                return Mono.just(siguienteId++);
+            }
+        }
+        return databaseClient.sql("select next value for cuentas_seq")
+                .map(fila -> fila.get(0, Long.class))
+                .one()
+                .map(inicio -> {
+                    synchronized (this) {
+                        siguienteId = inicio + 1;
+                        finBloque = inicio + BLOQUE_IDS;
+                    }
+                    return inicio;
+                });
+    }
+
+    private Mono<Void> actualizarSaldo(Cuenta cuenta) {
+        return databaseClient.sql("update cuentas set saldo = :saldo, version = version + 1 where id = :id")
+                .bind("saldo", cuenta.getSaldo().toBigDecimal())
+                .bind("id", cuenta.getId())
+                .then();
+    }
+
+    private static Cuenta aCuenta(Row fila) {
+        return new Cuenta(fila.get("id", Long.class), fila.get("persona", String.class),
+                Money.of(fila.get("saldo", BigDecimal.class)), fila.get("version", Long.class));
+    }
+}
@@ -0,0 +1,81 @@
+package com.springtest.reactivo;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+
+/**
+ * Perfil {@code reactivo}: {@code /api/cuentas} con rutas funcionales de WebFlux
+ * sobre Netty y R2DBC. Se comparte la base H2 en memoria del {@code DataSource},
+ * asi el esquema y {@code import.sql} siguen saliendo de Hibernate.
+ */
+@Configuration
+@Profile("reactivo")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactivoConfiguration {
+
+    // DataSourceAutoConfiguration se retira en cuanto hay un ConnectionFactory,
+    // y JPA se quedaria sin DataSource: se declara aca igual que lo haria Boot
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ConnectionFactory connectionFactory(DataSourceProperties propiedades) {
+        // jdbc:h2:mem:<nombre unico>;DB_CLOSE_DELAY=-1;... -> la misma base para el driver R2DBC
+        String url = propiedades.determineUrl().substring("jdbc:h2:".length());
+        return new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url)
+                .username(propiedades.determineUsername())
+                .password(propiedades.determinePassword())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // el R2dbcTransactionManager no se registra como bean: junto al de JPA habria
+    // dos TransactionManager y @Transactional no sabria cual usar
+    @Bean
+    public TransactionalOperator operadorTransaccional(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    // Tomcat tambien esta en el classpath; sin esto Boot lo elegiria como servidor reactivo
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> rutasCuentas(CuentaHandler handler) {
+        return RouterFunctions.route()
+                .GET("/api/cuentas/{id}", handler::detalle)
+                .POST("/api/cuentas/transferir", handler::transferir)
+                .GET("/api/cuentas", queryParam("persona", valor -> true), handler::buscarPorPersona)
+                .GET("/api/cuentas", handler::listar)
+                .POST("/api/cuentas", handler::guardar)
+                .DELETE("/api/cuentas/{id}", handler::eliminar)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.springtest;
+
+import com.springtest.benchmarks.CargaTransferencias;
+import com.springtest.services.CuentaCache;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CargaTransferenciasTest {
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CuentaCache cuentaCache;
+
+    @Test
+    void testCargaConcurrenteConservaInvariantes() throws InterruptedException {
+        CargaTransferencias.Configuracion configuracion = CargaTransferencias.Configuracion.desdePropiedades()
+                .hilos(Integer.getInteger("carga.hilos", 4))
+                .transferenciasPorHilo(Integer.getInteger("carga.transferencias", 200));
+
+        CargaTransferencias.Resultado resultado = new CargaTransferencias(service, cuentaCache, jdbcTemplate).ejecutar(configuracion);
+
+        assertEquals(0, resultado.errores, resultado::toString);
+        assertEquals(resultado.saldoInicial, resultado.saldoFinal, resultado::toString);
+        assertEquals(resultado.exitosas, resultado.transferenciasContadas, resultado::toString);
+    }
+}
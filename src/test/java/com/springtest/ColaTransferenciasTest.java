@@ -0,0 +1,74 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.models.TransferenciaEncolada;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.ColaTransferencias;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.transferencias.cola.capacidad=100")
+class ColaTransferenciasTest {
+
+    @Autowired
+    ColaTransferencias cola;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Test
+    void testCadaTransferenciaTerminaConSuResultado() throws InterruptedException {
+        //GIVEN: a solo alcanza para 5 de las 8 transferencias
+        Long a = cuentaRepository.save(new Cuenta(null, "cola-a", Money.of("50"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "cola-b", Money.of("0"))).getId();
+
+        //WHEN
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(cola.encolar(dto(a, b, "10")).getId());
+        }
+        List<TransferenciaEncolada> estados = esperar(ids);
+
+        //THEN
+        long ok = estados.stream().filter(e -> e.getEstado() == TransferenciaEncolada.Estado.OK).count();
+        assertEquals(5, ok);
+        estados.stream().filter(e -> e.getEstado() == TransferenciaEncolada.Estado.FAILED)
+                .forEach(e -> assertTrue(e.getMotivo().startsWith("DineroInsuficienteException")));
+        assertEquals(Money.of("0"), service.revisarSaldo(a));
+        assertEquals(Money.of("50"), service.revisarSaldo(b));
+    }
+
+    private List<TransferenciaEncolada> esperar(List<String> ids) throws InterruptedException {
+        for (int intento = 0; intento < 100; intento++) {
+            List<TransferenciaEncolada> estados = new ArrayList<>();
+            ids.forEach(id -> estados.add(cola.estado(id)));
+            if (estados.stream().noneMatch(e -> e.getEstado() == TransferenciaEncolada.Estado.PENDING)) {
+                return estados;
+            }
+            Thread.sleep(50);
+        }
+        fail("las transferencias siguen pendientes");
+        return null;
+    }
+
+    private static TransaccionDto dto(Long origen, Long destino, String monto) {
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(origen);
+        dto.setCuentaDestinoId(destino);
+        dto.setMonto(Money.of(monto));
+        dto.setBancoId(1L);
+        return dto;
+    }
+}
@@ -0,0 +1,129 @@
+package com.springtest;
+
+import com.springtest.models.Banco;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.BancoRepository;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.ContadorDiferido;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.transferencias.contador=diferido",
+        "app.transferencias.diferido.flush-ms=3600000"
+})
+class ContadorDiferidoTest {
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    ContadorDiferido contador;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    BancoRepository bancoRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testTotalIncluyeLoQueFaltaVolcar() {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "diferido-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "diferido-b", Money.of("1000"))).getId();
+        contador.volcar();
+        int guardado = bancoRepository.findById(1L).orElse(null).getTotalTransferencias();
+
+        //WHEN
+        service.transferir(a, b, Money.of("10"), 1L);
+        service.transferir(b, a, Money.of("10"), 1L);
+
+        //THEN
+        assertEquals(guardado, bancoRepository.findById(1L).orElse(null).getTotalTransferencias());
+        assertEquals(guardado + 2, service.revisarTotalTransferencias(1L));
+
+        contador.volcar();
+        assertEquals(guardado + 2, bancoRepository.findById(1L).orElse(null).getTotalTransferencias());
+        assertEquals(guardado + 2, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testTransferenciaFallidaNoSeCuenta() {
+        Long a = cuentaRepository.save(new Cuenta(null, "diferido-pobre", Money.of("5"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "diferido-destino", Money.of("5"))).getId();
+        int total = service.revisarTotalTransferencias(1L);
+
+        assertThrows(RuntimeException.class, () -> service.transferir(a, b, Money.of("50"), 1L));
+
+        assertEquals(total, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testVolcadoSinFilaDelBancoNoPierdeLaDiferencia() {
+        //GIVEN: un banco cuya fila desaparece antes del volcado
+        Long bancoId = bancoRepository.save(new Banco(null, "Banco Diferido", 0)).getId();
+        contador.incrementar(bancoId, 3);
+        jdbcTemplate.update("delete from bancos where id = ?", bancoId);
+
+        //WHEN
+        contador.volcar();
+        jdbcTemplate.update("insert into bancos (id, nombre, total_transferencias, version) values (?, 'Banco Diferido', 0, 0)",
+                bancoId);
+        contador.volcar();
+
+        //THEN
+        assertEquals(3, bancoRepository.findById(bancoId).orElse(null).getTotalTransferencias());
+        assertEquals(3, contador.total(bancoId));
+    }
+
+    @Test
+    void testAlCerrarSeVuelcaLoPendiente() throws SQLException {
+        //GIVEN: una base que sobrevive al contexto
+        String url = "jdbc:h2:mem:diferido-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(SpringTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + url,
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "app.transferencias.contador=diferido",
+                        "app.transferencias.diferido.flush-ms=3600000")
+                .run();
+        CuentaService otroService = contexto.getBean(CuentaService.class);
+        for (int i = 0; i < 3; i++) {
+            otroService.transferir(1L, 2L, Money.of("10"), 1L);
+        }
+        assertEquals(0, totalGuardado(url));
+
+        //WHEN
+        contexto.close();
+
+        //THEN
+        assertEquals(3, totalGuardado(url));
+    }
+
+    private int totalGuardado(String url) throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "");
+             ResultSet resultado = conexion.createStatement()
+                     .executeQuery("select total_transferencias from bancos where id = 1")) {
+            resultado.next();
+            return resultado.getInt(1);
+        }
+    }
+}
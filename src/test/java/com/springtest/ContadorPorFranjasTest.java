@@ -0,0 +1,154 @@
+package com.springtest;
+
+import com.springtest.models.Banco;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.BancoRepository;
+import com.springtest.repositories.ContadorFranjaRepository;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.ContadorFilaUnica;
+import com.springtest.services.ContadorTransferencias;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.transferencias.contador=franjas")
+class ContadorPorFranjasTest {
+
+    private static final int HILOS = 8;
+    private static final int INCREMENTOS_POR_HILO = 250;
+    private static final int FRANJAS = 8;
+
+    @Autowired
+    ContadorTransferencias contador;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    BancoRepository bancoRepository;
+
+    @Autowired
+    ContadorFranjaRepository contadorFranjaRepository;
+
+    @Test
+    void testNoSePierdenIncrementos() throws InterruptedException {
+        int inicial = contador.total(1L);
+
+        AtomicInteger errores = new AtomicInteger();
+        incrementarConcurrente(contador, errores);
+
+        assertEquals(0, errores.get());
+        assertEquals(inicial + HILOS * INCREMENTOS_POR_HILO, contador.total(1L));
+    }
+
+    @Test
+    void testPrimerasTransferenciasConcurrentesDeUnBancoNuevo() throws InterruptedException {
+        //GIVEN: un banco creado despues del arranque, todavia sin franjas
+        Long bancoId = bancoRepository.save(new Banco(null, "Banco Nuevo", 0)).getId();
+        List<Long[]> cuentas = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            cuentas.add(new Long[]{
+                    cuentaRepository.save(new Cuenta(null, "franjas-origen-" + i, Money.of("100"))).getId(),
+                    cuentaRepository.save(new Cuenta(null, "franjas-destino-" + i, Money.of("0"))).getId()});
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: cada hilo hace una de las primeras transferencias del banco
+        for (Long[] par : cuentas) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    service.transferir(par[0], par[1], Money.of("10"), bancoId);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    errores.incrementAndGet();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN
+        assertEquals(0, errores.get());
+        assertEquals(HILOS, contador.total(bancoId));
+        assertEquals(FRANJAS, contadorFranjaRepository.findByBancoId(bancoId).size());
+    }
+
+    @Test
+    void testFilaUnicaYFranjasCuentanExacto() throws InterruptedException {
+        //GIVEN
+        ContadorTransferencias filaUnica = beanFactory.createBean(ContadorFilaUnica.class);
+        int inicialFila = filaUnica.total(1L);
+        long inicialFranjas = contadorFranjaRepository.sumarPorBanco(1L);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: la misma carga sobre la columna del banco y sobre las franjas
+        incrementarConcurrente(filaUnica, errores);
+        incrementarConcurrente(contador, errores);
+
+        //THEN: cada contador suma exactamente lo suyo
+        int incrementos = HILOS * INCREMENTOS_POR_HILO;
+        assertEquals(0, errores.get());
+        assertEquals(inicialFila + incrementos, filaUnica.total(1L));
+        assertEquals(inicialFranjas + incrementos, contadorFranjaRepository.sumarPorBanco(1L));
+        assertEquals(filaUnica.total(1L) + contadorFranjaRepository.sumarPorBanco(1L), contador.total(1L));
+    }
+
+    private void incrementarConcurrente(ContadorTransferencias contador, AtomicInteger errores) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < INCREMENTOS_POR_HILO; j++) {
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> contador.incrementar(1L, 1));
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        fin.await();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,121 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.services.CuentaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CuentaCacheTest {
+
+    private static final Money MONTO = Money.of("10");
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void testAciertosYFallosSeRegistran() {
+        Long id = service.save(new Cuenta(null, "cache-estadisticas", Money.of("100"))).getId();
+        double aciertos = aciertos();
+
+        service.findById(id);
+        service.findById(id);
+        service.revisarSaldo(id);
+
+        assertEquals(aciertos + 3, aciertos());
+    }
+
+    @Test
+    void testSaldoActualizadoTrasTransferencia() {
+        Long a = service.save(new Cuenta(null, "cache-a", Money.of("1000"))).getId();
+        Long b = service.save(new Cuenta(null, "cache-b", Money.of("1000"))).getId();
+        assertEquals(Money.of("1000"), service.revisarSaldo(a));
+
+        service.transferir(a, b, MONTO, 1L);
+
+        assertEquals(Money.of("990"), service.revisarSaldo(a));
+        assertEquals(Money.of("1010"), service.findById(b).getSaldo());
+    }
+
+    @Test
+    void testEliminarInvalidaLaCuenta() {
+        Long id = service.save(new Cuenta(null, "cache-eliminada", Money.of("100"))).getId();
+        assertNotNull(service.findById(id));
+
+        service.deleteById(id);
+
+        assertNull(service.findById(id));
+    }
+
+    @Test
+    void testEliminarVariasCuentaSoloLasExistentes() {
+        Long a = service.save(new Cuenta(null, "cache-eliminada-a", Money.of("100"))).getId();
+        Long b = service.save(new Cuenta(null, "cache-eliminada-b", Money.of("100"))).getId();
+        assertNotNull(service.findById(a));
+
+        int eliminadas = service.deleteAllById(Arrays.asList(a, b, a, -1L));
+
+        assertEquals(2, eliminadas);
+        assertNull(service.findById(a));
+        assertNull(service.findById(b));
+        // una id inexistente ya no es un error
+        service.deleteById(-1L);
+    }
+
+    @Test
+    void testNuncaSeSirveUnSaldoAnteriorAUnaTransferenciaConfirmada() throws InterruptedException {
+        //GIVEN
+        Money inicial = Money.of("100000");
+        Long a = service.save(new Cuenta(null, "cache-origen", inicial)).getId();
+        Long b = service.save(new Cuenta(null, "cache-destino", inicial)).getId();
+        AtomicInteger confirmadas = new AtomicInteger();
+        AtomicInteger obsoletas = new AtomicInteger();
+        AtomicBoolean terminado = new AtomicBoolean();
+
+        // lectores: el saldo leido nunca puede ser mayor que el que dejo la ultima transferencia confirmada
+        ExecutorService lectores = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            lectores.execute(() -> {
+                while (!terminado.get()) {
+                    int vistas = confirmadas.get();
+                    Money maximo = Money.deCentavos(inicial.getCentavos() - MONTO.getCentavos() * vistas);
+                    if (service.revisarSaldo(a).compareTo(maximo) > 0) {
+                        obsoletas.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        //WHEN
+        for (int i = 0; i < 200; i++) {
+            service.transferir(a, b, MONTO, 1L);
+            confirmadas.incrementAndGet();
+        }
+        terminado.set(true);
+        lectores.shutdown();
+        assertTrue(lectores.awaitTermination(10, TimeUnit.SECONDS));
+
+        //THEN
+        assertEquals(0, obsoletas.get());
+        assertEquals(inicial.restar(Money.of("2000")), service.revisarSaldo(a));
+    }
+
+    private double aciertos() {
+        return registry.get("cache.gets").tags("cache", "cuentas", "result", "hit").functionCounter().count();
+    }
+}
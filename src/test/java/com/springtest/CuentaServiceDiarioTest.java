@@ -0,0 +1,166 @@
+package com.springtest;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TotalCuentas;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.repositories.TransaccionRepository;
+import com.springtest.services.CompactadorDiario;
+import com.springtest.services.CuentaService;
+import com.springtest.services.TotalizadorCuentas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.transferencias.motor=diario",
+        "app.transferencias.diario.compactacion-ms=3600000"
+})
+class CuentaServiceDiarioTest {
+
+    private static final int HILOS = 8;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CompactadorDiario compactador;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    TransaccionRepository transaccionRepository;
+
+    @Autowired
+    TotalizadorCuentas totalizador;
+
+    @Test
+    void testTransferirSoloAgregaUnAsiento() {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "diario-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "diario-b", Money.of("1000"))).getId();
+        long asientos = transaccionRepository.count();
+        int total = service.revisarTotalTransferencias(1L);
+
+        //WHEN
+        service.transferir(a, b, Money.of("100"), 1L);
+
+        //THEN
+        assertEquals(asientos + 1, transaccionRepository.count());
+        assertEquals(Money.of("1000"), cuentaRepository.findById(a).orElse(null).getSaldo());
+        assertEquals(Money.of("900"), service.revisarSaldo(a));
+        assertEquals(Money.of("1100"), service.findById(b).getSaldo());
+        assertEquals(total + 1, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testCompactarNoCambiaSaldosNiContador() {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "diario-compactada-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "diario-compactada-b", Money.of("1000"))).getId();
+        service.transferir(a, b, Money.of("300"), 1L);
+        service.transferir(b, a, Money.of("50"), 1L);
+        int total = service.revisarTotalTransferencias(1L);
+
+        //WHEN
+        compactador.compactar();
+
+        //THEN
+        assertNull(transaccionRepository.ultimaPendiente());
+        assertEquals(Money.of("750"), cuentaRepository.findById(a).orElse(null).getSaldo());
+        assertEquals(Money.of("750"), service.revisarSaldo(a));
+        assertEquals(Money.of("1250"), service.revisarSaldo(b));
+        assertEquals(total, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testDebitosConcurrentesNoGastanDosVecesElMismoSaldo() throws InterruptedException {
+        //GIVEN: alcanza para exactamente 10 transferencias
+        Long origen = cuentaRepository.save(new Cuenta(null, "diario-origen", Money.of("100"))).getId();
+        Long destino = cuentaRepository.save(new Cuenta(null, "diario-destino", Money.of("0"))).getId();
+        AtomicInteger rechazadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+
+        //WHEN
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < 5; j++) {
+                        try {
+                            service.transferir(origen, destino, Money.of("10"), 1L);
+                        } catch (DineroInsuficienteException e) {
+                            rechazadas.incrementAndGet();
+                        }
+                        if (j == 2) {
+                            compactador.compactar();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN
+        assertEquals(HILOS * 5 - 10, rechazadas.get());
+        assertEquals(Money.of("0"), service.revisarSaldo(origen));
+        assertEquals(Money.of("100"), service.revisarSaldo(destino));
+    }
+
+    @Test
+    void testListarIncluyeAsientosPendientes() {
+        Long a = cuentaRepository.save(new Cuenta(null, "diario-listada-a", Money.of("500"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "diario-listada-b", Money.of("500"))).getId();
+
+        service.transferir(a, b, Money.of("125"), 1L);
+
+        Cuenta listada = service.findAll().stream().filter(c -> c.getId().equals(b)).findFirst().orElse(null);
+        assertEquals(Money.of("625"), listada.getSaldo());
+    }
+
+    @Test
+    void testGuardarConAsientosPendientesNoDuplicaElSaldo() {
+        //GIVEN
+        Long a = service.save(new Cuenta(null, "diario-guardada-a", Money.of("1000"))).getId();
+        Long b = service.save(new Cuenta(null, "diario-guardada-b", Money.of("1000"))).getId();
+        service.transferir(a, b, Money.of("300"), 1L);
+        Cuenta leida = service.findById(a);
+        Money diferencia = diferencia();
+
+        //WHEN: el cliente devuelve el saldo que acaba de leer y a b le baja 100
+        Cuenta guardada = service.save(new Cuenta(a, "diario-guardada-a", leida.getSaldo()));
+        service.save(new Cuenta(b, "diario-guardada-b", Money.of("1200")));
+        compactador.compactar();
+
+        //THEN
+        assertEquals(Money.of("700"), guardada.getSaldo());
+        assertNull(transaccionRepository.ultimaPendiente());
+        assertEquals(Money.of("700"), service.revisarSaldo(a));
+        assertEquals(Money.of("700"), cuentaRepository.findById(a).orElse(null).getSaldo());
+        assertEquals(Money.of("1200"), service.revisarSaldo(b));
+        assertEquals(diferencia, diferencia(), "los totales se apartaron de las cuentas");
+    }
+
+    private Money diferencia() {
+        TotalCuentas totales = totalizador.totales();
+        return totalizador.recalcular().getSaldoTotal().restar(totales.getSaldoTotal());
+    }
+}
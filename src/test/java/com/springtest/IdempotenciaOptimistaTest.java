@@ -0,0 +1,80 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import com.springtest.services.RespuestasIdempotentes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.transferencias.concurrencia=optimista",
+        "app.transferencias.reintentos.maximo=20"
+})
+class IdempotenciaOptimistaTest {
+
+    private static final int HILOS = 4;
+    private static final int TRANSFERENCIAS_POR_HILO = 25;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    RespuestasIdempotentes respuestasIdempotentes;
+
+    @Test
+    void testConflictosConClaveSeReintentan() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "idempotente-optimista-a", Money.of("10000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "idempotente-optimista-b", Money.of("0"))).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        Queue<RuntimeException> errores = new ConcurrentLinkedQueue<>();
+
+        //WHEN: todos los pedidos con clave debitan la misma cuenta
+        for (int i = 0; i < HILOS; i++) {
+            int hilo = i;
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        try {
+                            respuestasIdempotentes.ejecutar("optimista-" + hilo + "-" + j, "{}",
+                                    () -> service.transferir(a, b, Money.of("10"), 1L));
+                        } catch (RuntimeException e) {
+                            errores.add(e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN
+        int transferencias = HILOS * TRANSFERENCIAS_POR_HILO;
+        assertEquals(0, errores.size(), () -> errores.size() + " errores, el primero: " + errores.peek());
+        assertEquals(Money.of(String.valueOf(10 * transferencias)), service.revisarSaldo(b));
+        assertEquals(Money.of(String.valueOf(10000 - 10 * transferencias)), service.revisarSaldo(a));
+    }
+}
@@ -0,0 +1,176 @@
+package com.springtest;
+
+import com.springtest.benchmarks.CargaTransferencias;
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaCache;
+import com.springtest.services.CuentaService;
+import com.springtest.services.LibroMayorEnMemoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.transferencias.motor=memoria")
+class LibroMayorEnMemoriaTest {
+
+    private static final int HILOS = 4;
+    private static final int TRANSFERENCIAS_POR_HILO = 250;
+    private static final int GUARDADOS = 20;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    LibroMayorEnMemoria libroMayor;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CuentaCache cuentaCache;
+
+    @Test
+    void testTransferenciaQuedaGuardadaAlTerminar() {
+        Long a = cuentaRepository.save(new Cuenta(null, "memoria-a", Money.of("500"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "memoria-b", Money.of("500"))).getId();
+        int total = service.revisarTotalTransferencias(1L);
+
+        service.transferir(a, b, Money.of("200"), 1L);
+
+        assertEquals(Money.of("300"), cuentaRepository.findById(a).orElse(null).getSaldo());
+        assertEquals(Money.of("700"), cuentaRepository.findById(b).orElse(null).getSaldo());
+        assertEquals(Money.of("300"), service.revisarSaldo(a));
+        assertEquals(total + 1, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testDineroInsuficienteNoCambiaSaldos() {
+        Long a = cuentaRepository.save(new Cuenta(null, "memoria-pobre", Money.of("50"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "memoria-rica", Money.of("50"))).getId();
+
+        assertThrows(DineroInsuficienteException.class, () -> service.transferir(a, b, Money.of("80"), 1L));
+
+        assertEquals(Money.of("50"), service.revisarSaldo(a));
+        assertEquals(Money.of("50"), cuentaRepository.findById(a).orElse(null).getSaldo());
+    }
+
+    @Test
+    void testRecuperarReconstruyeDesdeLaBase() {
+        Long a = cuentaRepository.save(new Cuenta(null, "memoria-recuperada-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "memoria-recuperada-b", Money.of("1000"))).getId();
+        service.transferir(a, b, Money.of("250"), 1L);
+
+        libroMayor.recuperar().join();
+
+        assertEquals(Money.of("750"), libroMayor.saldo(a));
+        assertEquals(Money.of("1250"), libroMayor.saldo(b));
+    }
+
+    @Test
+    void testGuardarMientrasSeTransfiereNoPierdeLaEscritura() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "memoria-guardada", Money.of("5000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "memoria-receptora", Money.of("0"))).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: cada guardado deja un saldo mas alto que cualquiera anterior menos todas las transferencias
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        service.transferir(a, b, Money.of("1"), 1L);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    errores.incrementAndGet();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        for (int i = 1; i <= GUARDADOS; i++) {
+            service.save(new Cuenta(a, "memoria-guardada", Money.of(String.valueOf(100_000 * i))));
+        }
+        assertTrue(fin.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN: el ultimo guardado menos a lo sumo todas las transferencias
+        int transferencias = HILOS * TRANSFERENCIAS_POR_HILO;
+        Money guardado = cuentaRepository.findById(a).orElse(null).getSaldo();
+        assertEquals(0, errores.get());
+        assertTrue(guardado.compareTo(Money.of(String.valueOf(100_000 * GUARDADOS - transferencias))) >= 0
+                && guardado.compareTo(Money.of(String.valueOf(100_000 * GUARDADOS))) <= 0, "saldo guardado " + guardado);
+        assertEquals(guardado, service.revisarSaldo(a));
+        assertEquals(Money.of(String.valueOf(transferencias)), cuentaRepository.findById(b).orElse(null).getSaldo());
+    }
+
+    @Test
+    void testCargaConcurrenteConservaInvariantes() throws InterruptedException {
+        CargaTransferencias.Resultado resultado = new CargaTransferencias(service, cuentaCache, jdbcTemplate)
+                .ejecutar(CargaTransferencias.Configuracion.desdePropiedades());
+
+        assertEquals(0, resultado.errores, resultado::toString);
+        assertEquals(resultado.saldoInicial, resultado.saldoFinal, resultado::toString);
+        assertEquals(resultado.exitosas, resultado.transferenciasContadas, resultado::toString);
+    }
+
+    @Test
+    @DirtiesContext
+    void testDetenerCompletaTodoLoPublicado() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "memoria-detenida-a", Money.of("100000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "memoria-detenida-b", Money.of("0"))).getId();
+        Queue<CompletableFuture<Void>> futuros = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    while (true) {
+                        futuros.add(libroMayor.transferir(a, b, Money.of("1"), 1L));
+                    }
+                } catch (IllegalStateException e) {
+                    // detenido: no se acepta nada mas
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        while (futuros.size() < 100) {
+            Thread.yield();
+        }
+
+        //WHEN: se detiene con los productores publicando
+        libroMayor.detener();
+        assertTrue(fin.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN: todo lo que se llego a publicar tiene respuesta
+        long sinCompletar = futuros.stream().filter(futuro -> !futuro.isDone()).count();
+        assertEquals(0, sinCompletar, () -> sinCompletar + " de " + futuros.size() + " sin completar");
+    }
+}
@@ -0,0 +1,76 @@
+package com.springtest;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.services.CuentaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.metrics.distribution.percentiles-histogram.cuentas.servicio=true",
+        "management.metrics.distribution.slo.cuentas.servicio=10ms,100ms"
+})
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+class MetricasCuentaServiceTest {
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void testCadaMetodoTieneSuTimer() {
+        //GIVEN
+        Long a = service.save(new Cuenta(null, "metricas-a", Money.of("100"))).getId();
+        Long b = service.save(new Cuenta(null, "metricas-b", Money.of("100"))).getId();
+        long transferencias = cantidad("transferir", "none");
+        long rechazadas = cantidad("transferir", "DineroInsuficienteException");
+        double insuficientes = registry.counter("transferencias.dinero.insuficiente").count();
+
+        //WHEN
+        service.transferir(a, b, Money.of("10"), 1L);
+        assertThrows(DineroInsuficienteException.class, () -> service.transferir(a, b, Money.of("1000"), 1L));
+        service.findById(a);
+
+        //THEN
+        assertEquals(transferencias + 1, cantidad("transferir", "none"));
+        assertEquals(rechazadas + 1, cantidad("transferir", "DineroInsuficienteException"));
+        assertEquals(insuficientes + 1, registry.counter("transferencias.dinero.insuficiente").count());
+        assertTrue(cantidad("findById", "none") >= 1);
+        assertTrue(cantidad("save", "none") >= 2);
+    }
+
+    @Test
+    void testPrometheusExponeServicioConexionesYHibernate() throws Exception {
+        service.findAll();
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cuentas_servicio_seconds_bucket{excepcion=\"none\",metodo=\"findAll\",le=\"0.01\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_sessions_open_total")));
+    }
+
+    private long cantidad(String metodo, String excepcion) {
+        Timer timer = registry.find("cuentas.servicio").tags("metodo", metodo, "excepcion", excepcion).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,32 @@
+package com.springtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limite de sentencias SQL que puede emitir una operacion. Cuenta las sentencias
+ * que Hibernate prepara en el hilo que llama (ver {@link SentenciasDelHilo});
+ * lo que va por {@code JdbcTemplate} o corre en otro hilo no se ve. Un lote JDBC
+ * cuenta como una sentencia.
+ */
+public class PresupuestoSentencias {
+
+    public <T> T verificar(String operacion, int maximo, Supplier<T> accion) {
+        List<String> sentencias = new ArrayList<>();
+        T resultado = SentenciasDelHilo.registrar(sentencias, accion);
+        assertTrue(sentencias.size() <= maximo,
+                () -> operacion + " emitio " + sentencias.size() + " sentencias y su presupuesto es " + maximo
+                        + ": " + sentencias);
+        return resultado;
+    }
+
+    public void verificar(String operacion, int maximo, Runnable accion) {
+        verificar(operacion, maximo, () -> {
+            accion.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.services.CuentaCache;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PresupuestoSentenciasTest {
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaCache cuentaCache;
+
+    PresupuestoSentencias presupuesto;
+
+    @BeforeEach
+    void setUp() {
+        presupuesto = new PresupuestoSentencias();
+    }
+
+    @Test
+    void testTransferir() {
+        Long a = service.save(new Cuenta(null, "presupuesto-a", Money.of("1000"))).getId();
+        Long b = service.save(new Cuenta(null, "presupuesto-b", Money.of("1000"))).getId();
+
+        // dos SELECT ... FOR UPDATE de cuentas, el del banco y tres UPDATE
+        presupuesto.verificar("transferir", 6, () -> service.transferir(a, b, Money.of("10"), 1L));
+    }
+
+    @Test
+    void testTransferirLote() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(service.save(new Cuenta(null, "presupuesto-lote-" + i, Money.of("1000"))).getId());
+        }
+        List<TransaccionDto> transacciones = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            TransaccionDto dto = new TransaccionDto();
+            dto.setCuentaOrigenId(ids.get(i % 4));
+            dto.setCuentaDestinoId(ids.get((i + 1) % 4));
+            dto.setMonto(Money.of("1"));
+            dto.setBancoId(1L);
+            transacciones.add(dto);
+        }
+
+        // no depende del tamano del lote: un SELECT de cuentas, un lote de UPDATE y el banco
+        presupuesto.verificar("transferirLote", 4, () -> service.transferirLote(transacciones));
+    }
+
+    @Test
+    void testLecturas() {
+        Long id = service.save(new Cuenta(null, "presupuesto-lectura", Money.of("1000"))).getId();
+        cuentaCache.limpiar();
+
+        presupuesto.verificar("findAll", 1, () -> service.findAll());
+        presupuesto.verificar("findById sin cache", 1, () -> service.findById(id));
+        presupuesto.verificar("findById en cache", 0, () -> service.findById(id));
+        presupuesto.verificar("findByPersona", 1, () -> service.findByPersona("juana"));
+        presupuesto.verificar("findPagina", 1, () -> service.findPagina(0L, 10));
+    }
+
+    @Test
+    void testEscrituras() {
+        // secuencia (una vez por bloque), INSERT y el UPDATE de totales_cuentas
+        Cuenta guardada = presupuesto.verificar("save", 3,
+                () -> service.save(new Cuenta(null, "presupuesto-alta", Money.of("1000"))));
+        Long otra = service.save(new Cuenta(null, "presupuesto-alta-2", Money.of("1000"))).getId();
+        Long tercera = service.save(new Cuenta(null, "presupuesto-alta-3", Money.of("1000"))).getId();
+
+        // SELECT ... FOR UPDATE de los saldos, DELETE y el UPDATE de totales_cuentas
+        int eliminadas = presupuesto.verificar("deleteAllById", 3,
+                () -> service.deleteAllById(Arrays.asList(guardada.getId(), otra)));
+        presupuesto.verificar("deleteById", 3, () -> service.deleteById(tercera));
+
+        assertEquals(2, eliminadas);
+    }
+
+    @Test
+    void testSoloCuentaElHiloQueLlama() {
+        Thread otro = new Thread(() -> service.findAll());
+
+        List<String> propias = SentenciasDelHilo.registrar(() -> service.findAll());
+        List<String> ajenas = SentenciasDelHilo.registrar(() -> {
+            otro.start();
+            try {
+                otro.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(1, propias.size(), propias::toString);
+        assertTrue(propias.get(0).contains("from cuentas"), propias::toString);
+        assertEquals(0, ajenas.size(), ajenas::toString);
+    }
+}
@@ -1,16 +1,19 @@
 package com.springtest;
 
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
 import com.springtest.repositories.CuentaRepository;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,16 +51,39 @@ public class RepositoriesTest {
 
     @Test
     void testFindAll() {
-        List<Cuenta> cuentas = cuentaRepository.findAll();
+        List<Cuenta> cuentas = new PresupuestoSentencias()
+                .verificar("findAll", 1, () -> cuentaRepository.findAll());
 
         assertFalse(cuentas.isEmpty());
         assertEquals(2, cuentas.size());
     }
 
+    @Test
+    void testFindPagina() {
+        List<Cuenta> primera = cuentaRepository.findPagina(0L, PageRequest.of(0, 1));
+        assertEquals(1, primera.size());
+        assertEquals("christian", primera.get(0).getPersona());
+
+        List<Cuenta> segunda = cuentaRepository.findPagina(primera.get(0).getId(), PageRequest.of(0, 1));
+        assertEquals(1, segunda.size());
+        assertEquals("juana", segunda.get(0).getPersona());
+
+        assertTrue(cuentaRepository.findPagina(segunda.get(0).getId(), PageRequest.of(0, 1)).isEmpty());
+    }
+
+    @Test
+    void testStreamAll() {
+        try (Stream<Cuenta> cuentas = cuentaRepository.streamAll()) {
+            List<String> personas = cuentas.map(Cuenta::getPersona).collect(Collectors.toList());
+            assertEquals(2, personas.size());
+            assertEquals("christian", personas.get(0));
+        }
+    }
+
     @Test
     void testSave() {
         //given
-        Cuenta cuentaP = new Cuenta(null, "car", new BigDecimal("3000"));
+        Cuenta cuentaP = new Cuenta(null, "car", Money.of("3000"));
         cuentaRepository.save(cuentaP);
 
         //when
@@ -74,7 +100,7 @@ public class RepositoriesTest {
     @Test
     void testUpdate() {
         //given
-        Cuenta cuentaP = new Cuenta(null, "car", new BigDecimal("3000"));
+        Cuenta cuentaP = new Cuenta(null, "car", Money.of("3000"));
 
         //when
         Cuenta cuenta = cuentaRepository.save(cuentaP);
@@ -84,7 +110,7 @@ public class RepositoriesTest {
         assertEquals("car", cuenta.getPersona());
         assertEquals("3000", cuenta.getSaldo().toPlainString());
 
-        cuenta.setSaldo(new BigDecimal("3800"));
+        cuenta.setSaldo(Money.of("3800"));
         final Cuenta cuentaActualizada = cuentaRepository.save(cuenta);
 
         //then
@@ -0,0 +1,50 @@
+package com.springtest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Registra el SQL que Hibernate prepara en el hilo que lo pidio. A diferencia de
+ * las estadisticas de la {@code SessionFactory}, no cuenta lo que hacen al mismo
+ * tiempo los {@code @Scheduled} ni los trabajadores de otros hilos. Se instala con
+ * {@code hibernate.session_factory.statement_inspector} en las propiedades de test.
+ */
+public class SentenciasDelHilo implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> SENTENCIAS = new ThreadLocal<>();
+
+    /**
+     * Ejecuta {@code accion} y devuelve las sentencias que preparo este hilo.
+     * Un lote JDBC se prepara una vez y cuenta como una sentencia.
+     */
+    public static List<String> registrar(Runnable accion) {
+        List<String> sentencias = new ArrayList<>();
+        registrar(sentencias, () -> {
+            accion.run();
+            return null;
+        });
+        return sentencias;
+    }
+
+    static <T> T registrar(List<String> sentencias, Supplier<T> accion) {
+        List<String> anteriores = SENTENCIAS.get();
+        SENTENCIAS.set(sentencias);
+        try {
+            return accion.get();
+        } finally {
+            SENTENCIAS.set(anteriores);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> sentencias = SENTENCIAS.get();
+        if (sentencias != null) {
+            sentencias.add(sql);
+        }
+        return sql;
+    }
+}
@@ -3,18 +3,22 @@ package com.springtest;
 import com.springtest.exceptions.DineroInsuficienteException;
 import com.springtest.models.Banco;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
 import com.springtest.repositories.BancoRepository;
 import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaCache;
 import com.springtest.services.CuentaService;
+import com.springtest.services.PersonaCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,8 +35,16 @@ class ServicesTest {
     @Autowired
     CuentaService service;
 
+    @Autowired
+    CuentaCache cuentaCache;
+
+    @Autowired
+    PersonaCache personaCache;
+
     @BeforeEach
     void setUp() {
+        cuentaCache.limpiar();
+        personaCache.limpiar();
         //cuentaRepository = mock(CuentaRepository.class);
         //bancoRepository = mock(BancoRepository.class);
         //service = new CuentaServiceImpl(cuentaRepository,bancoRepository);
@@ -41,17 +53,23 @@ class ServicesTest {
     @Test
     void contextLoads() {
         //GIVEN
-        when(cuentaRepository.findById(1L)).thenReturn(Datos.crearCuenta001());
-        when(cuentaRepository.findById(2L)).thenReturn(Datos.crearCuenta002());
-        when(bancoRepository.findById(1L)).thenReturn(Datos.crearBanco());
-
-        BigDecimal saldoOrigen = service.revisarSaldo(1L);
-        BigDecimal saldoDestino = service.revisarSaldo(2L);
+        Optional<Cuenta> cuenta001 = Datos.crearCuenta001();
+        Optional<Cuenta> cuenta002 = Datos.crearCuenta002();
+        Optional<Banco> banco = Datos.crearBanco();
+        when(cuentaRepository.findById(1L)).thenReturn(cuenta001);
+        when(cuentaRepository.findById(2L)).thenReturn(cuenta002);
+        when(cuentaRepository.findByIdParaActualizar(1L)).thenReturn(cuenta001);
+        when(cuentaRepository.findByIdParaActualizar(2L)).thenReturn(cuenta002);
+        when(bancoRepository.findById(1L)).thenReturn(banco);
+        when(bancoRepository.findByIdParaActualizar(1L)).thenReturn(banco);
+
+        Money saldoOrigen = service.revisarSaldo(1L);
+        Money saldoDestino = service.revisarSaldo(2L);
 
         assertEquals("1000", saldoOrigen.toPlainString());
         assertEquals("2000", saldoDestino.toPlainString());
 
-        service.transferir(1L, 2L, new BigDecimal("100"), 1L);
+        service.transferir(1L, 2L, Money.of("100"), 1L);
 
         saldoOrigen = service.revisarSaldo(1L);
         saldoDestino = service.revisarSaldo(2L);
@@ -62,11 +80,15 @@ class ServicesTest {
         int totalTransferenecias = service.revisarTotalTransferencias(1L);
         assertEquals(1, totalTransferenecias);
 
-        verify(cuentaRepository, times(3)).findById(1L);
-        verify(cuentaRepository, times(3)).findById(2L);
+        // las lecturas posteriores a la transferencia salen de la cache
+        verify(cuentaRepository).findById(1L);
+        verify(cuentaRepository).findById(2L);
+        verify(cuentaRepository).findByIdParaActualizar(1L);
+        verify(cuentaRepository).findByIdParaActualizar(2L);
         verify(cuentaRepository,times(2)).save(any(Cuenta.class));
 
-        verify(bancoRepository, times(2)).findById(1L);
+        verify(bancoRepository).findById(1L);
+        verify(bancoRepository).findByIdParaActualizar(1L);
         verify(bancoRepository).save(any(Banco.class));
     }
 
@@ -75,18 +97,24 @@ class ServicesTest {
     @Test
     void contextLoadsError() {
         //GIVEN
-        when(cuentaRepository.findById(1L)).thenReturn(Datos.crearCuenta001());
-        when(cuentaRepository.findById(2L)).thenReturn(Datos.crearCuenta002());
-        when(bancoRepository.findById(1L)).thenReturn(Datos.crearBanco());
-
-        BigDecimal saldoOrigen = service.revisarSaldo(1L);
-        BigDecimal saldoDestino = service.revisarSaldo(2L);
+        Optional<Cuenta> cuenta001 = Datos.crearCuenta001();
+        Optional<Cuenta> cuenta002 = Datos.crearCuenta002();
+        Optional<Banco> banco = Datos.crearBanco();
+        when(cuentaRepository.findById(1L)).thenReturn(cuenta001);
+        when(cuentaRepository.findById(2L)).thenReturn(cuenta002);
+        when(cuentaRepository.findByIdParaActualizar(1L)).thenReturn(cuenta001);
+        when(cuentaRepository.findByIdParaActualizar(2L)).thenReturn(cuenta002);
+        when(bancoRepository.findById(1L)).thenReturn(banco);
+        when(bancoRepository.findByIdParaActualizar(1L)).thenReturn(banco);
+
+        Money saldoOrigen = service.revisarSaldo(1L);
+        Money saldoDestino = service.revisarSaldo(2L);
 
         assertEquals("1000", saldoOrigen.toPlainString());
         assertEquals("2000", saldoDestino.toPlainString());
 
         assertThrows(DineroInsuficienteException.class, () -> {
-            service.transferir(1L, 2L, new BigDecimal("1200"), 1L);
+            service.transferir(1L, 2L, Money.of("1200"), 1L);
         });
 
         saldoOrigen = service.revisarSaldo(1L);
@@ -98,15 +126,56 @@ class ServicesTest {
         int totalTransferenecias = service.revisarTotalTransferencias(1L);
         assertEquals(0, totalTransferenecias);
 
-        verify(cuentaRepository, times(3)).findById(1L);
-        verify(cuentaRepository, times(2)).findById(2L);
+        verify(cuentaRepository).findById(1L);
+        verify(cuentaRepository).findById(2L);
+        verify(cuentaRepository).findByIdParaActualizar(1L);
+        verify(cuentaRepository).findByIdParaActualizar(2L);
         verify(cuentaRepository, never()).save(any(Cuenta.class));
 
         verify(bancoRepository, times(1)).findById(1L);
+        verify(bancoRepository, never()).findByIdParaActualizar(anyLong());
         verify(bancoRepository, never()).save(any(Banco.class));
     }
 
 
+    @Test
+    void testTransferirLote() {
+        //GIVEN
+        Cuenta cuenta001 = Datos.crearCuenta001().orElse(null);
+        Cuenta cuenta002 = Datos.crearCuenta002().orElse(null);
+        Banco banco = Datos.crearBanco().orElse(null);
+        when(cuentaRepository.findAllByIdParaActualizar(any())).thenReturn(Arrays.asList(cuenta001, cuenta002));
+        when(bancoRepository.findByIdParaActualizar(1L)).thenReturn(Optional.of(banco));
+
+        TransaccionDto ida = new TransaccionDto();
+        ida.setCuentaOrigenId(1L);
+        ida.setCuentaDestinoId(2L);
+        ida.setMonto(Money.of("100"));
+        ida.setBancoId(1L);
+
+        TransaccionDto vuelta = new TransaccionDto();
+        vuelta.setCuentaOrigenId(2L);
+        vuelta.setCuentaDestinoId(1L);
+        vuelta.setMonto(Money.of("300"));
+        vuelta.setBancoId(1L);
+
+        //WHEN
+        int total = service.transferirLote(Arrays.asList(ida, vuelta));
+
+        //THEN
+        assertEquals(2, total);
+        assertEquals("1200", cuenta001.getSaldo().toPlainString());
+        assertEquals("1800", cuenta002.getSaldo().toPlainString());
+        assertEquals(2, banco.getTotalTransferencias());
+
+        verify(cuentaRepository).findAllByIdParaActualizar(any());
+        verify(cuentaRepository, never()).findByIdParaActualizar(anyLong());
+        verify(cuentaRepository).saveAll(any());
+        verify(bancoRepository).findByIdParaActualizar(1L);
+        verify(bancoRepository).save(banco);
+    }
+
+
     @Test
     void testFindAll() {
         //Given
@@ -146,9 +215,34 @@ class ServicesTest {
     }
 
 
+    @Test
+    void testFindByPersona() {
+        //Given
+        when(cuentaRepository.findByPersona("christian")).thenReturn(Datos.crearCuenta001());
+        when(cuentaRepository.findById(1L)).thenReturn(Datos.crearCuenta001());
+        when(cuentaRepository.findByPersona("nadie")).thenReturn(Optional.empty());
+
+        // when
+        Cuenta cuenta = service.findByPersona("christian");
+        Cuenta otraVez = service.findByPersona("christian");
+        Cuenta ausente = service.findByPersona("nadie");
+        Cuenta ausenteOtraVez = service.findByPersona("nadie");
+
+        //then
+        assertEquals("christian", cuenta.getPersona());
+        assertEquals(cuenta, otraVez);
+        assertNull(ausente);
+        assertNull(ausenteOtraVez);
+
+        verify(cuentaRepository).findByPersona("christian");
+        verify(cuentaRepository).findByPersona("nadie");
+        verify(cuentaRepository).findById(1L);
+    }
+
+
     @Test
     void testSave() {
-        Cuenta cuentaPepe = new Cuenta(null, "pepe", new BigDecimal("3000"));
+        Cuenta cuentaPepe = new Cuenta(null, "pepe", Money.of("3000"));
         when(cuentaRepository.save(any())).then(invocation -> {
             Cuenta c = invocation.getArgument(0);
             c.setId(3L);
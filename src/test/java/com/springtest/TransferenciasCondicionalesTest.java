@@ -0,0 +1,111 @@
+package com.springtest;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.transferencias.concurrencia=condicional")
+class TransferenciasCondicionalesTest {
+
+    private static final int HILOS = 8;
+    private static final int TRANSFERENCIAS_POR_HILO = 50;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Test
+    void testTransferir() {
+        Long a = cuentaRepository.save(new Cuenta(null, "condicional-1", Money.of("500"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "condicional-2", Money.of("500"))).getId();
+        int total = service.revisarTotalTransferencias(1L);
+        // deja ambas cuentas en la cache antes de transferir
+        service.revisarSaldo(a);
+        service.revisarSaldo(b);
+
+        // debito, credito, banco y la relectura para la cache
+        new PresupuestoSentencias()
+                .verificar("transferir condicional", 4, () -> service.transferir(a, b, Money.of("200"), 1L));
+
+        assertEquals(Money.of("300"), service.revisarSaldo(a));
+        assertEquals(Money.of("700"), service.revisarSaldo(b));
+        assertEquals(1L, cuentaRepository.findById(a).orElse(null).getVersion());
+        assertEquals(total + 1, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testSaldoInsuficienteNoModificaNada() {
+        Long a = cuentaRepository.save(new Cuenta(null, "condicional-pobre", Money.of("100"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "condicional-rica", Money.of("100"))).getId();
+        int total = service.revisarTotalTransferencias(1L);
+
+        // b > a: el credito se hace antes que el debito fallido y el rollback lo deshace
+        assertThrows(DineroInsuficienteException.class, () -> service.transferir(b, a, Money.of("150"), 1L));
+        assertThrows(DineroInsuficienteException.class, () -> service.transferir(a, b, Money.of("150"), 1L));
+        assertThrows(NoSuchElementException.class, () -> service.transferir(a, -1L, Money.of("10"), 1L));
+
+        assertEquals(Money.of("100"), cuentaRepository.findById(a).orElse(null).getSaldo());
+        assertEquals(Money.of("100"), cuentaRepository.findById(b).orElse(null).getSaldo());
+        assertEquals(total, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testTransferenciasConcurrentesConservanElDinero() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "condicional-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "condicional-b", Money.of("1000"))).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: todos los hilos vacian la cuenta A, que alcanza para 100 de las 400 transferencias
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        try {
+                            service.transferir(a, b, Money.of("10"), 1L);
+                        } catch (DineroInsuficienteException e) {
+                            rechazadas.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN
+        assertEquals(0, errores.get(), () -> rechazadas.get() + " rechazadas");
+        assertEquals(HILOS * TRANSFERENCIAS_POR_HILO - 100, rechazadas.get(), () -> errores.get() + " errores");
+        assertEquals(Money.ZERO, service.revisarSaldo(a));
+        assertEquals(Money.of("2000"), service.revisarSaldo(b));
+    }
+}
@@ -0,0 +1,124 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.RetryConfiguration;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.transferencias.concurrencia=optimista",
+        "app.transferencias.reintentos.maximo=3"
+})
+class TransferenciasOptimistasTest {
+
+    private static final int HILOS = 8;
+    private static final int TRANSFERENCIAS_POR_HILO = 50;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    RetryConfiguration reintentos;
+
+    @Autowired
+    BeanFactoryTransactionAttributeSourceAdvisor transacciones;
+
+    @Test
+    void testTransferirSinConflicto() {
+        Long a = cuentaRepository.save(new Cuenta(null, "optimista-1", Money.of("500"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "optimista-2", Money.of("500"))).getId();
+
+        service.transferir(a, b, Money.of("200"), 1L);
+
+        assertEquals(Money.of("300"), service.revisarSaldo(a));
+        assertEquals(Money.of("700"), service.revisarSaldo(b));
+        assertEquals(1L, cuentaRepository.findById(a).orElse(null).getVersion());
+    }
+
+    @Test
+    void testNoBloqueaLaFilaDelBanco() {
+        Long a = cuentaRepository.save(new Cuenta(null, "optimista-banco-1", Money.of("500"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "optimista-banco-2", Money.of("500"))).getId();
+        int total = service.revisarTotalTransferencias(1L);
+
+        List<String> sentencias = SentenciasDelHilo.registrar(() -> service.transferir(a, b, Money.of("10"), 1L));
+
+        assertTrue(sentencias.stream().noneMatch(sql -> sql.contains("for update")), sentencias::toString);
+        assertTrue(sentencias.stream().anyMatch(sql -> sql.startsWith("update bancos")), sentencias::toString);
+        assertEquals(total + 1, service.revisarTotalTransferencias(1L));
+    }
+
+    @Test
+    void testElReintentoEnvuelveALaTransaccion() {
+        // menor orden = advisor exterior: cada intento abre su propia transaccion
+        assertTrue(reintentos.getOrder() < transacciones.getOrder(),
+                () -> "reintentos " + reintentos.getOrder() + ", transacciones " + transacciones.getOrder());
+    }
+
+    @Test
+    void testConflictosSeReintentanYSeCuentan() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "optimista-a", Money.of("100000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "optimista-b", Money.of("100000"))).getId();
+        double agotadosIniciales = registry.counter("transferencias.reintentos.agotados").count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger agotadas = new AtomicInteger();
+
+        //WHEN
+        for (int i = 0; i < HILOS; i++) {
+            Long origen = i % 2 == 0 ? a : b;
+            Long destino = i % 2 == 0 ? b : a;
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        try {
+                            service.transferir(origen, destino, Money.of("10"), 1L);
+                        } catch (OptimisticLockingFailureException e) {
+                            agotadas.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        //THEN
+        double reintentos = registry.counter("transferencias.reintentos").count();
+        assertEquals(Money.of("200000"), service.revisarSaldo(a).sumar(service.revisarSaldo(b)),
+                () -> reintentos + " reintentos, " + agotadas.get() + " agotadas");
+        assertEquals(agotadas.get(), registry.counter("transferencias.reintentos.agotados").count() - agotadosIniciales,
+                () -> reintentos + " reintentos");
+    }
+}
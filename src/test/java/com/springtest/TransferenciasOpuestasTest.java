@@ -0,0 +1,76 @@
+package com.springtest;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TransferenciasOpuestasTest {
+
+    private static final int HILOS = 8;
+    private static final int TRANSFERENCIAS_POR_HILO = 100;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Test
+    void testTransferenciasOpuestasConservanElDinero() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "opuesta-a", Money.of("100000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "opuesta-b", Money.of("100000"))).getId();
+        Money totalInicial = service.revisarSaldo(a).sumar(service.revisarSaldo(b));
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: la mitad de los hilos transfiere A->B y la otra mitad B->A
+        for (int i = 0; i < HILOS; i++) {
+            Long origen = i % 2 == 0 ? a : b;
+            Long destino = i % 2 == 0 ? b : a;
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        try {
+                            service.transferir(origen, destino, Money.of("10"), 1L);
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        inicio.countDown();
+        assertTrue(fin.await(60, TimeUnit.SECONDS), "las transferencias no terminaron: posible deadlock");
+        executor.shutdown();
+
+        //THEN
+        Money saldoA = service.revisarSaldo(a);
+        Money saldoB = service.revisarSaldo(b);
+        assertEquals(0, errores.get());
+        assertEquals(totalInicial, saldoA.sumar(saldoB));
+        // mismo numero de hilos en cada sentido: los saldos vuelven al inicio
+        assertEquals(Money.of("100000"), saldoA);
+    }
+}
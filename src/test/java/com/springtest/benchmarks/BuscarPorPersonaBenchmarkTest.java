@@ -0,0 +1,68 @@
+package com.springtest.benchmarks;
+
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaCache;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@DirtiesContext
+@SpringBootTest
+class BuscarPorPersonaBenchmarkTest {
+
+    private static final int CUENTAS = 1_000_000;
+    private static final int BUSQUEDAS = 200;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CuentaCache cuentaCache;
+
+    @Test
+    void testIndiceContraRecorridoCompleto() {
+        //GIVEN
+        List<Object[]> filas = new ArrayList<>(10_000);
+        for (int i = 0; i < CUENTAS; i++) {
+            filas.add(new Object[]{"persona-" + i});
+            if (filas.size() == 10_000) {
+                jdbcTemplate.batchUpdate("insert into cuentas (persona, saldo, version) values (?, 1000, 0)", filas);
+                filas.clear();
+            }
+        }
+        cuentaCache.cambioDespuesDeCommit();
+
+        //WHEN
+        long conIndice = medir();
+        jdbcTemplate.execute("alter table cuentas drop constraint if exists ux_cuentas_persona");
+        jdbcTemplate.execute("drop index if exists ux_cuentas_persona");
+        long sinIndice = medir();
+
+        //THEN
+        System.out.printf("findByPersona sobre %d cuentas -> indice: %d us/busqueda, recorrido: %d us/busqueda%n",
+                CUENTAS, conIndice / BUSQUEDAS / 1000, sinIndice / BUSQUEDAS / 1000);
+        assertTrue(conIndice < sinIndice);
+    }
+
+    private long medir() {
+        Random random = new Random(7);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            assertTrue(cuentaRepository.findByPersona("persona-" + random.nextInt(CUENTAS)).isPresent());
+        }
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,202 @@
+package com.springtest.benchmarks;
+
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Money;
+import com.springtest.services.CuentaCache;
+import com.springtest.services.CuentaService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga concurrente sobre {@link CuentaService#transferir}: siembra cuentas propias,
+ * lanza transferencias entre pares al azar desde varios hilos y al final mide el
+ * dinero total de esas cuentas y el contador del banco para verificar que no se
+ * perdio ni se creo nada.
+ */
+public class CargaTransferencias {
+
+    private static final AtomicInteger EJECUCIONES = new AtomicInteger();
+
+    private final CuentaService service;
+    private final CuentaCache cuentaCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CargaTransferencias(CuentaService service, CuentaCache cuentaCache, JdbcTemplate jdbcTemplate) {
+        this.service = service;
+        this.cuentaCache = cuentaCache;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Resultado ejecutar(Configuracion configuracion) throws InterruptedException {
+        String prefijo = "carga-" + EJECUCIONES.incrementAndGet() + "-" + System.nanoTime() + "-";
+        List<Long> ids = sembrar(prefijo, configuracion);
+        Money totalInicial = sumarSaldos(prefijo);
+        int transferenciasIniciales = service.revisarTotalTransferencias(configuracion.bancoId);
+
+        AtomicLong exitosas = new AtomicLong();
+        AtomicLong rechazadas = new AtomicLong();
+        AtomicLong errores = new AtomicLong();
+        long[][] latencias = new long[configuracion.hilos][];
+
+        ExecutorService executor = Executors.newFixedThreadPool(configuracion.hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(configuracion.hilos);
+        for (int h = 0; h < configuracion.hilos; h++) {
+            int hilo = h;
+            executor.execute(() -> {
+                Random random = new Random(configuracion.semilla + hilo);
+                long[] propias = new long[configuracion.transferenciasPorHilo];
+                try {
+                    inicio.await();
+                    for (int i = 0; i < propias.length; i++) {
+                        int origen = random.nextInt(ids.size());
+                        int destino = (origen + 1 + random.nextInt(ids.size() - 1)) % ids.size();
+                        Money monto = Money.deCentavos(1 + random.nextInt((int) configuracion.montoMaximo.getCentavos()));
+                        long comienzo = System.nanoTime();
+                        try {
+                            service.transferir(ids.get(origen), ids.get(destino), monto, configuracion.bancoId);
+                            exitosas.incrementAndGet();
+                        } catch (DineroInsuficienteException e) {
+                            rechazadas.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                        propias[i] = System.nanoTime() - comienzo;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencias[hilo] = propias;
+                    fin.countDown();
+                }
+            });
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        fin.await();
+        long duracion = System.nanoTime() - comienzo;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        return new Resultado(exitosas.get(), rechazadas.get(), errores.get(), duracion, ordenar(latencias),
+                totalInicial, sumarSaldos(prefijo),
+                service.revisarTotalTransferencias(configuracion.bancoId) - transferenciasIniciales);
+    }
+
+    private List<Long> sembrar(String prefijo, Configuracion configuracion) {
+        List<Object[]> filas = new ArrayList<>(configuracion.cuentas);
+        for (int i = 0; i < configuracion.cuentas; i++) {
+            filas.add(new Object[]{prefijo + i, configuracion.saldoInicial.toBigDecimal()});
+        }
+        jdbcTemplate.batchUpdate("insert into cuentas (persona, saldo, version) values (?, ?, 0)", filas);
+        // las filas no pasan por el servicio: se invalida a mano el ETag de la lista
+        cuentaCache.cambioDespuesDeCommit();
+        return jdbcTemplate.queryForList("select id from cuentas where persona like ? order by id", Long.class, prefijo + "%");
+    }
+
+    private Money sumarSaldos(String prefijo) {
+        BigDecimal total = jdbcTemplate.queryForObject("select sum(saldo) from cuentas where persona like ?",
+                BigDecimal.class, prefijo + "%");
+        return Money.of(total);
+    }
+
+    private static long[] ordenar(long[][] latencias) {
+        long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(todas);
+        return todas;
+    }
+
+    public static class Configuracion {
+        int cuentas = 100;
+        int hilos = 8;
+        int transferenciasPorHilo = 500;
+        Money saldoInicial = Money.of("10000");
+        Money montoMaximo = Money.of("500");
+        Long bancoId = 1L;
+        long semilla = 42;
+
+        /**
+         * Toma los valores de las propiedades del sistema {@code carga.*} si existen.
+         */
+        public static Configuracion desdePropiedades() {
+            Configuracion configuracion = new Configuracion();
+            configuracion.cuentas = Integer.getInteger("carga.cuentas", configuracion.cuentas);
+            configuracion.hilos = Integer.getInteger("carga.hilos", configuracion.hilos);
+            configuracion.transferenciasPorHilo = Integer.getInteger("carga.transferencias", configuracion.transferenciasPorHilo);
+            return configuracion;
+        }
+
+        public Configuracion cuentas(int cuentas) {
+            this.cuentas = cuentas;
+            return this;
+        }
+
+        public Configuracion hilos(int hilos) {
+            this.hilos = hilos;
+            return this;
+        }
+
+        public Configuracion transferenciasPorHilo(int transferenciasPorHilo) {
+            this.transferenciasPorHilo = transferenciasPorHilo;
+            return this;
+        }
+    }
+
+    public static class Resultado {
+        public final long exitosas;
+        public final long rechazadas;
+        public final long errores;
+        public final long duracionNanos;
+        public final Money saldoInicial;
+        public final Money saldoFinal;
+        public final long transferenciasContadas;
+        private final long[] latencias;
+
+        Resultado(long exitosas, long rechazadas, long errores, long duracionNanos, long[] latencias,
+                  Money saldoInicial, Money saldoFinal, long transferenciasContadas) {
+            this.exitosas = exitosas;
+            this.rechazadas = rechazadas;
+            this.errores = errores;
+            this.duracionNanos = duracionNanos;
+            this.latencias = latencias;
+            this.saldoInicial = saldoInicial;
+            this.saldoFinal = saldoFinal;
+            this.transferenciasContadas = transferenciasContadas;
+        }
+
+        public double transferenciasPorSegundo() {
+            return (exitosas + rechazadas) / (duracionNanos / 1e9);
+        }
+
+        /**
+         * Latencia en microsegundos del percentil indicado (0-100).
+         */
+        public double percentil(double percentil) {
+            if (latencias.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(percentil / 100 * latencias.length) - 1;
+            return latencias[Math.max(0, Math.min(indice, latencias.length - 1))] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d exitosas, %d rechazadas, %d errores, %.0f transferencias/s, "
+                            + "p50 %.0f us, p99 %.0f us, p999 %.0f us, saldo %s -> %s, contador +%d",
+                    exitosas, rechazadas, errores, transferenciasPorSegundo(),
+                    percentil(50), percentil(99), percentil(99.9),
+                    saldoInicial, saldoFinal, transferenciasContadas);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.springtest.benchmarks;
+
+import com.springtest.services.ContadorFilaUnica;
+import com.springtest.services.ContadorTransferencias;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@SpringBootTest(properties = "app.transferencias.contador=franjas")
+class ContadorFranjasBenchmarkTest {
+
+    private static final int HILOS = 8;
+    private static final int INCREMENTOS_POR_HILO = 2000;
+
+    @Autowired
+    ContadorTransferencias franjas;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void testFranjasContraFilaUnica() throws InterruptedException {
+        //GIVEN
+        ContadorTransferencias filaUnica = beanFactory.createBean(ContadorFilaUnica.class);
+        // calentamiento
+        incrementar(filaUnica, new AtomicInteger(), 100);
+        incrementar(franjas, new AtomicInteger(), 100);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN
+        long fila = incrementar(filaUnica, errores, INCREMENTOS_POR_HILO);
+        long conFranjas = incrementar(franjas, errores, INCREMENTOS_POR_HILO);
+
+        //THEN
+        int incrementos = HILOS * INCREMENTOS_POR_HILO;
+        System.out.printf("contador con %d hilos -> fila unica: %.0f incrementos/s, franjas: %.0f incrementos/s (x%.1f)%n",
+                HILOS, incrementos / (fila / 1e9), incrementos / (conFranjas / 1e9), (double) fila / conFranjas);
+        assertEquals(0, errores.get());
+    }
+
+    private long incrementar(ContadorTransferencias contador, AtomicInteger errores, int porHilo)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        for (int i = 0; i < HILOS; i++) {
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < porHilo; j++) {
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> contador.incrementar(1L, 1));
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        assertTrue(fin.await(120, TimeUnit.SECONDS));
+        long duracion = System.nanoTime() - comienzo;
+        executor.shutdown();
+        return duracion;
+    }
+}
@@ -0,0 +1,44 @@
+package com.springtest.benchmarks;
+
+import com.springtest.SpringTestApplication;
+import com.springtest.services.CuentaCache;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arranque de la aplicacion sin servidor web sobre H2 embebida para los benchmarks JMH.
+ */
+final class ContextoBenchmark {
+
+    private static final int LOTE = 10_000;
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propiedades) {
+        return new SpringApplicationBuilder(SpringTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=OFF")
+                .properties(propiedades)
+                .run();
+    }
+
+    static void sembrarCuentas(ConfigurableApplicationContext contexto, int cantidad) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        List<Object[]> filas = new ArrayList<>(LOTE);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add(new Object[]{"jmh-" + i});
+            if (filas.size() == LOTE || i == cantidad - 1) {
+                jdbcTemplate.batchUpdate("insert into cuentas (persona, saldo, version) values (?, 1000000, 0)", filas);
+                filas.clear();
+            }
+        }
+        // las filas no pasan por el servicio: se invalida a mano el ETag de la lista
+        contexto.getBean(CuentaCache.class).cambioDespuesDeCommit();
+    }
+}
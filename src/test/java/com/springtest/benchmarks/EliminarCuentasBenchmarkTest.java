@@ -0,0 +1,82 @@
+package com.springtest.benchmarks;
+
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaCache;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@DirtiesContext
+@SpringBootTest
+class EliminarCuentasBenchmarkTest {
+
+    private static final int CUENTAS = 100_000;
+    private static final int INDIVIDUALES = 5_000;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CuentaCache cuentaCache;
+
+    @Test
+    void testEliminarEnGruposContraUnaPorUna() {
+        //GIVEN
+        List<Long> cargarYBorrar = crear("cargar-", INDIVIDUALES);
+        List<Long> borrarDirecto = crear("directo-", INDIVIDUALES);
+        List<Long> enGrupos = crear("grupo-", CUENTAS);
+
+        //WHEN
+        long inicio = System.nanoTime();
+        cargarYBorrar.forEach(cuentaRepository::deleteById);
+        long cargando = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        borrarDirecto.forEach(service::deleteById);
+        long directo = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        int eliminadas = service.deleteAllById(enGrupos);
+        long grupos = System.nanoTime() - inicio;
+
+        //THEN
+        System.out.printf("eliminar -> findById+delete: %.0f cuentas/s, delete directo: %.0f cuentas/s, "
+                        + "delete ... in: %.0f cuentas/s (%d cuentas en %d ms)%n",
+                INDIVIDUALES / (cargando / 1e9), INDIVIDUALES / (directo / 1e9),
+                CUENTAS / (grupos / 1e9), CUENTAS, grupos / 1_000_000);
+        assertEquals(CUENTAS, eliminadas);
+        assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "select count(*) from cuentas where persona like 'grupo-%' or persona like 'directo-%'"
+                        + " or persona like 'cargar-%'", Integer.class));
+    }
+
+    private List<Long> crear(String prefijo, int cantidad) {
+        List<Object[]> filas = new ArrayList<>(10_000);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add(new Object[]{prefijo + i});
+            if (filas.size() == 10_000 || i == cantidad - 1) {
+                jdbcTemplate.batchUpdate("insert into cuentas (persona, saldo, version) values (?, 1000, 0)", filas);
+                filas.clear();
+            }
+        }
+        cuentaCache.cambioDespuesDeCommit();
+        return jdbcTemplate.queryForList("select id from cuentas where persona like ? order by id", Long.class,
+                prefijo + "%");
+    }
+}
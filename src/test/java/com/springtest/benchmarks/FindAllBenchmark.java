@@ -0,0 +1,44 @@
+package com.springtest.benchmarks;
+
+import com.springtest.models.Cuenta;
+import com.springtest.services.CuentaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CuentaService#findAll} con distintos tamanos de tabla.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindAllBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int cuentas;
+
+    private ConfigurableApplicationContext contexto;
+    private CuentaService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = ContextoBenchmark.iniciar();
+        ContextoBenchmark.sembrarCuentas(contexto, cuentas);
+        service = contexto.getBean(CuentaService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Cuenta> findAll() {
+        return service.findAll();
+    }
+}
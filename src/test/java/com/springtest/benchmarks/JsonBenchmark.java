@@ -0,0 +1,73 @@
+package com.springtest.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serializacion JSON de {@link TransaccionDto} y {@link Cuenta}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    private ObjectWriter escritorTransaccion;
+    private ObjectReader lectorTransaccion;
+    private ObjectWriter escritorCuenta;
+    private ObjectReader lectorCuenta;
+
+    private TransaccionDto transaccion;
+    private Cuenta cuenta;
+    private String transaccionJson;
+    private String cuentaJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        escritorTransaccion = objectMapper.writerFor(TransaccionDto.class);
+        lectorTransaccion = objectMapper.readerFor(TransaccionDto.class);
+        escritorCuenta = objectMapper.writerFor(Cuenta.class);
+        lectorCuenta = objectMapper.readerFor(Cuenta.class);
+
+        transaccion = new TransaccionDto();
+        transaccion.setCuentaOrigenId(1L);
+        transaccion.setCuentaDestinoId(2L);
+        transaccion.setMonto(Money.of("100"));
+        transaccion.setBancoId(1L);
+        cuenta = new Cuenta(1L, "christian", Money.of("1000"));
+
+        transaccionJson = escritorTransaccion.writeValueAsString(transaccion);
+        cuentaJson = escritorCuenta.writeValueAsString(cuenta);
+    }
+
+    @Benchmark
+    public String serializarTransaccion() throws IOException {
+        return escritorTransaccion.writeValueAsString(transaccion);
+    }
+
+    @Benchmark
+    public TransaccionDto deserializarTransaccion() throws IOException {
+        return lectorTransaccion.readValue(transaccionJson);
+    }
+
+    @Benchmark
+    public String serializarCuenta() throws IOException {
+        return escritorCuenta.writeValueAsString(cuenta);
+    }
+
+    @Benchmark
+    public Cuenta deserializarCuenta() throws IOException {
+        return lectorCuenta.readValue(cuentaJson);
+    }
+}
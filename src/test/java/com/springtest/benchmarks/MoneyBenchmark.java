@@ -0,0 +1,60 @@
+package com.springtest.benchmarks;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debito + credito de una cuenta con {@link BigDecimal} frente a {@link Money}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private BigDecimal saldoDecimal;
+    private BigDecimal montoDecimal;
+    private Money saldo;
+    private Money monto;
+    private Cuenta cuenta;
+
+    @Setup
+    public void setUp() {
+        saldoDecimal = new BigDecimal("1000000.00");
+        montoDecimal = new BigDecimal("125.50");
+        saldo = Money.of(saldoDecimal);
+        monto = Money.of(montoDecimal);
+        cuenta = new Cuenta(1L, "jmh", saldo);
+    }
+
+    @Benchmark
+    public BigDecimal debitoCreditoBigDecimal() {
+        BigDecimal nuevoSaldo = saldoDecimal.subtract(montoDecimal);
+        if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalStateException();
+        }
+        return nuevoSaldo.add(montoDecimal);
+    }
+
+    @Benchmark
+    public Money debitoCreditoMoney() {
+        Money nuevoSaldo = saldo.restar(monto);
+        if (nuevoSaldo.esNegativo()) {
+            throw new IllegalStateException();
+        }
+        return nuevoSaldo.sumar(monto);
+    }
+
+    @Benchmark
+    public Cuenta debitoCreditoCuenta() {
+        cuenta.debito(monto);
+        cuenta.credito(monto);
+        return cuenta;
+    }
+}
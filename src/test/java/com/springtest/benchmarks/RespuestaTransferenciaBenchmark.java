@@ -0,0 +1,64 @@
+package com.springtest.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springtest.controllers.FechaDelDia;
+import com.springtest.models.Money;
+import com.springtest.models.RespuestaTransferencia;
+import com.springtest.models.TransaccionDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de armar y serializar la respuesta de {@code POST /transferir}: el
+ * {@code HashMap} con {@code LocalDate.now()} de antes frente a la respuesta
+ * tipada con un {@link ObjectWriter} previo y la fecha del dia en cache.
+ * Con {@code -prof gc} (perfil benchmarks) se ve la asignacion por respuesta.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RespuestaTransferenciaBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter escritor;
+    private FechaDelDia fechaDelDia;
+    private TransaccionDto transaccion;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        escritor = objectMapper.writerFor(RespuestaTransferencia.class);
+        fechaDelDia = new FechaDelDia();
+
+        transaccion = new TransaccionDto();
+        transaccion.setCuentaOrigenId(1L);
+        transaccion.setCuentaDestinoId(2L);
+        transaccion.setMonto(Money.of("100"));
+        transaccion.setBancoId(1L);
+    }
+
+    @Benchmark
+    public byte[] mapa() throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("date", LocalDate.now().toString());
+        response.put("status", "OK");
+        response.put("mensaje", "Transferencia realizada con exito");
+        response.put("transaccion", transaccion);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] tipada() throws IOException {
+        return escritor.writeValueAsBytes(RespuestaTransferencia.exitosa(fechaDelDia.hoy(), transaccion));
+    }
+}
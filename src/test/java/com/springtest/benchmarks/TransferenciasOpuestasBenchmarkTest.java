@@ -0,0 +1,77 @@
+package com.springtest.benchmarks;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@SpringBootTest
+class TransferenciasOpuestasBenchmarkTest {
+
+    private static final int HILOS = 8;
+    private static final int TRANSFERENCIAS_POR_HILO = 1000;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Test
+    void testTransferenciasPorSegundoEnSentidosOpuestos() throws InterruptedException {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "opuesta-bench-a", Money.of("1000000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "opuesta-bench-b", Money.of("1000000"))).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+        AtomicInteger errores = new AtomicInteger();
+
+        //WHEN: la mitad de los hilos transfiere A->B y la otra mitad B->A
+        for (int i = 0; i < HILOS; i++) {
+            Long origen = i % 2 == 0 ? a : b;
+            Long destino = i % 2 == 0 ? b : a;
+            executor.execute(() -> {
+                try {
+                    inicio.await();
+                    for (int j = 0; j < TRANSFERENCIAS_POR_HILO; j++) {
+                        try {
+                            service.transferir(origen, destino, Money.of("10"), 1L);
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        assertTrue(fin.await(120, TimeUnit.SECONDS), "las transferencias no terminaron: posible deadlock");
+        long duracion = System.nanoTime() - comienzo;
+        executor.shutdown();
+
+        //THEN
+        System.out.printf("transferencias opuestas: %.0f transferencias/s (%d hilos, %d errores)%n",
+                HILOS * TRANSFERENCIAS_POR_HILO / (duracion / 1e9), HILOS, errores.get());
+        assertEquals(0, errores.get());
+        assertEquals(Money.of("1000000"), service.revisarSaldo(a));
+    }
+}
@@ -0,0 +1,70 @@
+package com.springtest.benchmarks;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.services.CuentaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CuentaService#transferir} entre cuentas al azar sobre H2 embebida, con
+ * cada estrategia de contador de transferencias por banco y con el modo de
+ * concurrencia actual (pesimista) frente a los UPDATE condicionales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferirBenchmark {
+
+    private static final Money MONTO = Money.of("1");
+
+    @Param({"1000"})
+    public int cuentas;
+
+    @Param({"fila", "diferido"})
+    public String contador;
+
+    @Param({"pesimista", "condicional"})
+    public String concurrencia;
+
+    private ConfigurableApplicationContext contexto;
+    private CuentaService service;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = ContextoBenchmark.iniciar("app.transferencias.contador=" + contador,
+                "app.transferencias.concurrencia=" + concurrencia);
+        ContextoBenchmark.sembrarCuentas(contexto, cuentas);
+        service = contexto.getBean(CuentaService.class);
+        ids = service.findAll().stream().map(Cuenta::getId).collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void transferir() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int origen = random.nextInt(ids.size());
+        int destino = (origen + 1 + random.nextInt(ids.size() - 1)) % ids.size();
+        service.transferir(ids.get(origen), ids.get(destino), MONTO, 1L);
+    }
+
+    // con varios hilos se nota la espera por la fila del banco
+    @Benchmark
+    @Threads(4)
+    public void transferirConcurrente() {
+        transferir();
+    }
+}
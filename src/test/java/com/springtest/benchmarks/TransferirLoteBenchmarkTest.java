@@ -0,0 +1,81 @@
+package com.springtest.benchmarks;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@SpringBootTest
+class TransferirLoteBenchmarkTest {
+
+    private static final int CUENTAS = 200;
+    private static final int TRANSFERENCIAS = 2000;
+
+    @Autowired
+    CuentaService service;
+
+    @Autowired
+    CuentaRepository cuentaRepository;
+
+    @Test
+    void testLoteContraLlamadasIndividuales() {
+        //GIVEN
+        List<Cuenta> nuevas = new ArrayList<>();
+        for (int i = 0; i < CUENTAS; i++) {
+            nuevas.add(new Cuenta(null, "lote-" + i, Money.of("1000000")));
+        }
+        List<Long> ids = cuentaRepository.saveAll(nuevas).stream().map(Cuenta::getId).collect(Collectors.toList());
+        List<TransaccionDto> transacciones = generarTransacciones(ids, TRANSFERENCIAS);
+        int totalInicial = service.revisarTotalTransferencias(1L);
+
+        // calentamiento
+        service.transferirLote(transacciones.subList(0, 100));
+        transacciones.subList(0, 100).forEach(dto -> service.transferir(dto.getCuentaOrigenId(),
+                dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId()));
+
+        //WHEN
+        long inicio = System.nanoTime();
+        for (TransaccionDto dto : transacciones) {
+            service.transferir(dto.getCuentaOrigenId(), dto.getCuentaDestinoId(), dto.getMonto(), dto.getBancoId());
+        }
+        long individual = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        service.transferirLote(transacciones);
+        long lote = System.nanoTime() - inicio;
+
+        //THEN
+        System.out.printf("%d transferencias -> individual: %d ms, lote: %d ms (x%.1f)%n", TRANSFERENCIAS,
+                individual / 1_000_000, lote / 1_000_000, (double) individual / lote);
+        assertEquals(totalInicial + 200 + 2 * TRANSFERENCIAS, service.revisarTotalTransferencias(1L));
+    }
+
+    private List<TransaccionDto> generarTransacciones(List<Long> ids, int cantidad) {
+        Random random = new Random(42);
+        List<TransaccionDto> transacciones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int origen = random.nextInt(ids.size());
+            int destino = (origen + 1 + random.nextInt(ids.size() - 1)) % ids.size();
+            TransaccionDto dto = new TransaccionDto();
+            dto.setCuentaOrigenId(ids.get(origen));
+            dto.setCuentaDestinoId(ids.get(destino));
+            dto.setMonto(Money.of("10"));
+            dto.setBancoId(1L);
+            transacciones.add(dto);
+        }
+        return transacciones;
+    }
+}
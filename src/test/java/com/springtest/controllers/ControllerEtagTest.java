@@ -0,0 +1,76 @@
+package com.springtest.controllers;
+
+import com.springtest.PresupuestoSentencias;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControllerEtagTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CuentaService service;
+
+    @Test
+    void testDetalleNoModificado() throws Exception {
+        //GIVEN
+        Long a = service.save(new Cuenta(null, "etag-a", Money.of("1000"))).getId();
+        Long b = service.save(new Cuenta(null, "etag-b", Money.of("1000"))).getId();
+        String etag = etag("/api/cuentas/" + a);
+
+        //WHEN: sin cambios, el 304 sale de la cache sin consultar la base
+        new PresupuestoSentencias().verificar("detalle 304", 0, () -> {
+            try {
+                mvc.perform(get("/api/cuentas/" + a).header("If-None-Match", etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string("ETag", etag))
+                        .andExpect(content().string(""));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        service.transferir(a, b, Money.of("100"), 1L);
+
+        //THEN
+        mvc.perform(get("/api/cuentas/" + a).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, etag("/api/cuentas/" + a));
+    }
+
+    @Test
+    void testListarNoModificada() throws Exception {
+        String etag = etag("/api/cuentas");
+
+        mvc.perform(get("/api/cuentas").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        service.save(new Cuenta(null, "etag-lista", Money.of("1000")));
+
+        mvc.perform(get("/api/cuentas").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, etag("/api/cuentas"));
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        return etag;
+    }
+}
@@ -0,0 +1,99 @@
+package com.springtest.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springtest.exceptions.DineroInsuficienteException;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TransaccionDto;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.NestedServletException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControllerIdempotenciaTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CuentaService service;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRepeticionNoTransfiereDeNuevo() throws Exception {
+        //GIVEN
+        Long a = cuentaRepository.save(new Cuenta(null, "idempotente-a", Money.of("1000"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "idempotente-b", Money.of("1000"))).getId();
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(a);
+        dto.setCuentaDestinoId(b);
+        dto.setMonto(Money.of("100"));
+        dto.setBancoId(1L);
+        int total = service.revisarTotalTransferencias(1L);
+        double repeticiones = registry.counter("idempotencia.repeticiones", "origen", "memoria").count();
+
+        //WHEN
+        String primera = transferir(dto, "clave-1");
+        String segunda = transferir(dto, "clave-1");
+
+        //THEN
+        assertEquals(primera, segunda);
+        assertEquals(Money.of("900"), service.revisarSaldo(a));
+        assertEquals(total + 1, service.revisarTotalTransferencias(1L));
+        assertEquals(repeticiones + 1, registry.counter("idempotencia.repeticiones", "origen", "memoria").count());
+
+        // otra clave es otra transferencia
+        transferir(dto, "clave-2");
+        assertEquals(Money.of("800"), service.revisarSaldo(a));
+    }
+
+    @Test
+    void testTransferenciaFallidaNoGuardaLaClave() throws Exception {
+        Long a = cuentaRepository.save(new Cuenta(null, "idempotente-pobre", Money.of("10"))).getId();
+        Long b = cuentaRepository.save(new Cuenta(null, "idempotente-destino", Money.of("10"))).getId();
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(a);
+        dto.setCuentaDestinoId(b);
+        dto.setMonto(Money.of("50"));
+        dto.setBancoId(1L);
+
+        // DineroInsuficienteException no tiene manejador propio y sale de MockMvc
+        NestedServletException fallida = assertThrows(NestedServletException.class,
+                () -> transferir(dto, "clave-fallida"));
+        assertTrue(fallida.getCause() instanceof DineroInsuficienteException, fallida::toString);
+        service.save(new Cuenta(a, "idempotente-pobre", Money.of("100")));
+
+        transferir(dto, "clave-fallida");
+        assertEquals(Money.of("50"), cuentaRepository.findById(a).orElse(null).getSaldo());
+    }
+
+    private String transferir(TransaccionDto dto, String clave) throws Exception {
+        return mvc.perform(post("/api/cuentas/transferir")
+                        .header("Idempotency-Key", clave)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
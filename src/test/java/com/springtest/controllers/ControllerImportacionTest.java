@@ -0,0 +1,133 @@
+package com.springtest.controllers;
+
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.importacion.lote=7")
+@AutoConfigureMockMvc
+class ControllerImportacionTest {
+
+    private static final int CUENTAS = 25;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CuentaService service;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Test
+    void testImportarCsv() throws Exception {
+        //GIVEN
+        StringBuilder csv = new StringBuilder("persona,saldo\n");
+        for (int i = 0; i < CUENTAS; i++) {
+            csv.append("csv-").append(i).append(',').append(100 + i).append('\n');
+        }
+        // la ausencia queda en la cache de personas antes de importar
+        assertNull(service.findByPersona("csv-0"));
+        long antes = cuentaRepository.count();
+
+        //WHEN
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv").content(csv.toString()))
+                //THEN
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.total").value(CUENTAS));
+
+        assertEquals(antes + CUENTAS, cuentaRepository.count());
+        Cuenta primera = service.findByPersona("csv-0");
+        assertNotNull(primera);
+        assertEquals(Money.of("124"), service.findByPersona("csv-24").getSaldo());
+        // pooled-lo: las ids de una importacion salen consecutivas
+        assertEquals(primera.getId() + CUENTAS - 1, service.findByPersona("csv-24").getId());
+    }
+
+    @Test
+    void testImportarNdjson() throws Exception {
+        String ndjson = "{\"persona\":\"ndjson-1\",\"saldo\":10.50}\n"
+                + "{\"id\":1,\"persona\":\"ndjson-2\",\"saldo\":20}\n"
+                + "{\"persona\":\"ndjson-3\",\"saldo\":30}\n";
+
+        mvc.perform(post("/api/cuentas/importar").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3));
+
+        // la id del archivo se ignora: la cuenta 1 sigue siendo de christian
+        assertEquals("christian", service.findById(1L).getPersona());
+        assertEquals(Money.of("10.50"), service.findByPersona("ndjson-1").getSaldo());
+        assertNotNull(service.findByPersona("ndjson-2"));
+    }
+
+    @Test
+    void testLineaInvalidaNoImportaNada() throws Exception {
+        long antes = cuentaRepository.count();
+
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv")
+                        .content("invalida-1,100\ninvalida-2,cien\ninvalida-3,300\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("FAILED"));
+
+        assertEquals(antes, cuentaRepository.count());
+        assertNull(service.findByPersona("invalida-1"));
+    }
+
+    @Test
+    void testCsvConComillasYCamposVacios() throws Exception {
+        //GIVEN: una coma dentro de comillas es parte de la persona
+        String csv = "persona,saldo\n"
+                + "\"Perez, Juan\",150.50\n"
+                + "\n"
+                + "\"Gomez \"\"el Turco\"\"\", 75\n";
+
+        //WHEN
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv").content(csv))
+                //THEN
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2));
+
+        assertEquals(Money.of("150.50"), service.findByPersona("Perez, Juan").getSaldo());
+        assertEquals(Money.of("75"), service.findByPersona("Gomez \"el Turco\"").getSaldo());
+    }
+
+    @Test
+    void testCsvConCampoDeMasNoImportaNada() throws Exception {
+        long antes = cuentaRepository.count();
+
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv")
+                        .content("sobrante-1,100\nsobrante-2,200,\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Se esperaba persona,saldo en la linea 2"));
+
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv")
+                        .content("sin-saldo,\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Saldo invalido en la linea 1: "));
+
+        assertEquals(antes, cuentaRepository.count());
+    }
+
+    @Test
+    void testPersonaExistenteNoImportaNada() throws Exception {
+        long antes = cuentaRepository.count();
+
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv")
+                        .content("repetida-1,100\njuana,200\n"))
+                .andExpect(status().isConflict());
+
+        assertEquals(antes, cuentaRepository.count());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
 import com.springtest.models.TransaccionDto;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +15,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -44,7 +44,7 @@ class ControllerRestTemplateTest {
     @Order(1)
     void testTransferir() throws JsonProcessingException {
         TransaccionDto dto = new TransaccionDto();
-        dto.setMonto(new BigDecimal("100"));
+        dto.setMonto(Money.of("100"));
         dto.setCuentaDestinoId(2L);
         dto.setCuentaOrigenId(1L);
         dto.setBancoId(1L);
@@ -89,7 +89,7 @@ class ControllerRestTemplateTest {
         assertEquals("christian", cuenta.getPersona());
         assertEquals(1L, cuenta.getId());
         assertEquals("900.00", cuenta.getSaldo().toPlainString());
-        assertEquals(new Cuenta(1L, "christian", new BigDecimal("900.00")), cuenta);
+        assertEquals(new Cuenta(1L, "christian", Money.of("900.00")), cuenta);
     }
 
 
@@ -126,7 +126,7 @@ class ControllerRestTemplateTest {
     @Test
     @Order(4)
     void testGuardar() {
-        Cuenta cuenta = new Cuenta(null, "pepa", new BigDecimal("3800"));
+        Cuenta cuenta = new Cuenta(null, "pepa", Money.of("3800"));
 
         final ResponseEntity<Cuenta> respuesta = client.postForEntity("http://localhost:" + puerto + "/api/cuentas", cuenta, Cuenta.class);
 
@@ -3,8 +3,15 @@ package com.springtest.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springtest.Datos;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
 import com.springtest.models.TransaccionDto;
+import com.springtest.models.TransferenciaEncolada;
+import com.springtest.services.ColaTransferencias;
+import com.springtest.services.CuentaCache;
 import com.springtest.services.CuentaService;
+import com.springtest.services.ImportacionCuentas;
+import com.springtest.services.RespuestasIdempotentes;
+import com.springtest.services.TotalizadorCuentas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +19,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +49,21 @@ class ControllerTest {
     @MockBean
     private CuentaService cuentaService;
 
+    @MockBean
+    private RespuestasIdempotentes respuestasIdempotentes;
+
+    @MockBean
+    private ColaTransferencias colaTransferencias;
+
+    @MockBean
+    private ImportacionCuentas importacionCuentas;
+
+    @MockBean
+    private TotalizadorCuentas totalizadorCuentas;
+
+    @MockBean
+    private CuentaCache cuentaCache;
+
     ObjectMapper objectMapper;
 
     @BeforeEach
@@ -58,6 +84,9 @@ class ControllerTest {
                 .andExpect(jsonPath("$.persona").value("christian"))
                 .andExpect(jsonPath("$.saldo").value("1000"));
 
+        mvc.perform(get("/api/cuentas/99").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
         verify(cuentaService).findById(1L);
     }
 
@@ -68,7 +97,7 @@ class ControllerTest {
         TransaccionDto dto = new TransaccionDto();
         dto.setCuentaOrigenId(1L);
         dto.setCuentaDestinoId(2L);
-        dto.setMonto(new BigDecimal("100"));
+        dto.setMonto(Money.of("100"));
         dto.setBancoId(1L);
 
         System.out.println(objectMapper.writeValueAsString(dto));
@@ -98,6 +127,36 @@ class ControllerTest {
     }
 
 
+    @Test
+    void testTransferirLote() throws Exception {
+        // Given
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(1L);
+        dto.setCuentaDestinoId(2L);
+        dto.setMonto(Money.of("100"));
+        dto.setBancoId(1L);
+        List<TransaccionDto> transacciones = Arrays.asList(dto, dto);
+
+        when(cuentaService.transferirLote(any())).thenReturn(2);
+
+        // When
+        mvc.perform(post("/api/cuentas/transferir/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transacciones)))
+                // Then
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.date").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.mensaje").value("Transferencias realizadas con exito"))
+                .andExpect(jsonPath("$.total").value(2))
+                // mismas claves y en el mismo orden que el HashMap que se usaba antes
+                .andExpect(content().string("{\"date\":\"" + LocalDate.now() + "\",\"total\":2,"
+                        + "\"mensaje\":\"Transferencias realizadas con exito\",\"status\":\"OK\"}"));
+
+        verify(cuentaService).transferirLote(any());
+    }
+
+
     @Test
     void testListar() throws Exception {
         List<Cuenta> cuentas = Arrays.asList(Datos.crearCuenta001().orElse(null),
@@ -120,10 +179,63 @@ class ControllerTest {
     }
 
 
+    @Test
+    void testBuscarPorPersona() throws Exception {
+        when(cuentaService.findByPersona("christian")).thenReturn(Datos.crearCuenta001().orElse(null));
+
+        mvc.perform(get("/api/cuentas").param("persona", "christian"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.saldo").value("1000"));
+
+        mvc.perform(get("/api/cuentas").param("persona", "nadie"))
+                .andExpect(status().isNotFound());
+
+        verify(cuentaService).findByPersona("christian");
+    }
+
+
+    @Test
+    void testListarPagina() throws Exception {
+        when(cuentaService.findPagina(1L, 10)).thenReturn(Arrays.asList(Datos.crearCuenta002().orElse(null)));
+
+        mvc.perform(get("/api/cuentas").param("afterId", "1").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].persona").value("juana"));
+
+        verify(cuentaService).findPagina(1L, 10);
+    }
+
+
+    @Test
+    void testListarStream() throws Exception {
+        List<Cuenta> cuentas = Arrays.asList(Datos.crearCuenta001().orElse(null),
+                Datos.crearCuenta002().orElse(null));
+        doAnswer(invocation -> {
+            Consumer<Cuenta> consumidor = invocation.getArgument(0);
+            cuentas.forEach(consumidor);
+            return null;
+        }).when(cuentaService).recorrerTodas(any());
+
+        MvcResult resultado = mvc.perform(get("/api/cuentas/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(content().json(objectMapper.writeValueAsString(cuentas)));
+    }
+
+
     @Test
     void testGuardar() throws Exception {
         // Given
-        Cuenta cuenta = new Cuenta(null, "pepe", new BigDecimal("3000"));
+        Cuenta cuenta = new Cuenta(null, "pepe", Money.of("3000"));
         when(cuentaService.save(any())).then(invocation -> {
             Cuenta c = invocation.getArgument(0);
             c.setId(3L);
@@ -144,23 +256,70 @@ class ControllerTest {
 
 
 
-}
-
-
-
-
-
-
-
 
+    @Test
+    void testEncolarTransferencia() throws Exception {
+        // Given
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(1L);
+        dto.setCuentaDestinoId(2L);
+        dto.setMonto(Money.of("100"));
+        dto.setBancoId(1L);
+        when(colaTransferencias.encolar(any()))
+                .thenReturn(new TransferenciaEncolada("abc", TransferenciaEncolada.Estado.PENDING, null));
 
+        // When
+        mvc.perform(post("/api/cuentas/transferencias")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+        // Then
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/cuentas/transferencias/abc"))
+                .andExpect(jsonPath("$.id").value("abc"))
+                .andExpect(jsonPath("$.estado").value("PENDING"));
 
+        verify(colaTransferencias).encolar(any());
+    }
 
+    @Test
+    void testEncolarTransferenciaColaLlena() throws Exception {
+        TransaccionDto dto = new TransaccionDto();
+        dto.setCuentaOrigenId(1L);
+        dto.setCuentaDestinoId(2L);
+        dto.setMonto(Money.of("100"));
+        dto.setBancoId(1L);
+        when(colaTransferencias.encolar(any())).thenReturn(null);
 
+        mvc.perform(post("/api/cuentas/transferencias")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isServiceUnavailable());
+    }
 
+    @Test
+    void testEstadoTransferencia() throws Exception {
+        when(colaTransferencias.estado("abc")).thenReturn(new TransferenciaEncolada("abc",
+                TransferenciaEncolada.Estado.FAILED, "DineroInsuficienteException: Dinero Insuficiente en la cuenta"));
 
+        mvc.perform(get("/api/cuentas/transferencias/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("FAILED"))
+                .andExpect(jsonPath("$.motivo").value("DineroInsuficienteException: Dinero Insuficiente en la cuenta"));
 
+        mvc.perform(get("/api/cuentas/transferencias/otra"))
+                .andExpect(status().isNotFound());
+    }
 
+    @Test
+    void testEliminarVarias() throws Exception {
+        when(cuentaService.deleteAllById(Arrays.asList(3L, 4L, 99L))).thenReturn(2);
 
+        mvc.perform(delete("/api/cuentas").param("ids", "3,4,99"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.total").value(2));
 
+        verify(cuentaService).deleteAllById(Arrays.asList(3L, 4L, 99L));
+    }
 
+}
@@ -0,0 +1,110 @@
+package com.springtest.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
+import com.springtest.models.TotalCuentas;
+import com.springtest.repositories.CuentaRepository;
+import com.springtest.services.CuentaService;
+import com.springtest.services.TotalizadorCuentas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControllerTotalesTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CuentaService service;
+
+    @Autowired
+    private TotalizadorCuentas totalizadorCuentas;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testTotalesSeMantienenConCadaEscritura() throws Exception {
+        //GIVEN: otros tests del mismo contexto insertan cuentas por SQL, se comparan diferencias
+        TotalCuentas inicial = totalizadorCuentas.totales();
+        Money descuadreInicial = diferencia(conciliacion());
+
+        //WHEN
+        Long a = service.save(new Cuenta(null, "totales-a", Money.of("500"))).getId();
+        Long b = service.save(new Cuenta(null, "totales-b", Money.of("300"))).getId();
+        service.transferir(a, b, Money.of("100"), 1L);
+        guardar("{\"id\":" + b + ",\"persona\":\"totales-b\",\"saldo\":1000}");
+        mvc.perform(post("/api/cuentas/importar").contentType("text/csv").content("totales-c,50\ntotales-d,25.50\n"))
+                .andExpect(status().isOk());
+        service.deleteById(a);
+        service.deleteAllById(Arrays.asList(a, service.findByPersona("totales-c").getId()));
+
+        //THEN: quedan b (1000) y totales-d (25.50)
+        TotalCuentas finales = totalizadorCuentas.totales();
+        assertEquals(inicial.getCuentas() + 2, finales.getCuentas());
+        assertEquals(inicial.getSaldoTotal().sumar(Money.of("1025.50")), finales.getSaldoTotal());
+        JsonNode conciliacion = conciliacion();
+        assertEquals(descuadreInicial, diferencia(conciliacion), () -> "conciliacion: " + conciliacion);
+
+        JsonNode totales = objectMapper.readTree(mvc.perform(get("/api/cuentas/totales"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(finales.getCuentas(), totales.get("cuentas").asLong());
+        assertEquals(finales.getSaldoTotal(), Money.of(totales.get("saldoTotal").decimalValue()));
+    }
+
+    @Test
+    void testGuardarActualizaUnaCuentaExistente() throws Exception {
+        //GIVEN
+        Long id = service.save(new Cuenta(null, "actualizable", Money.of("200"))).getId();
+        long cuentas = totalizadorCuentas.totales().getCuentas();
+
+        //WHEN: el cuerpo no trae version, como cualquier cliente HTTP
+        JsonNode guardada = objectMapper.readTree(
+                guardar("{\"id\":" + id + ",\"persona\":\"actualizada\",\"saldo\":350}"));
+
+        //THEN
+        assertEquals(id.longValue(), guardada.get("id").asLong());
+        assertEquals("actualizada", guardada.get("persona").asText());
+        assertEquals(Money.of("350"), service.findById(id).getSaldo());
+        assertEquals(Money.of("350"), cuentaRepository.findById(id).orElse(null).getSaldo());
+        assertEquals(1L, cuentaRepository.findById(id).orElse(null).getVersion());
+        assertEquals(id, service.findByPersona("actualizada").getId());
+        assertNull(service.findByPersona("actualizable"));
+        assertEquals(cuentas, totalizadorCuentas.totales().getCuentas());
+    }
+
+    private String guardar(String cuenta) throws Exception {
+        return mvc.perform(post("/api/cuentas").contentType(MediaType.APPLICATION_JSON).content(cuenta))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode conciliacion() throws Exception {
+        return objectMapper.readTree(mvc.perform(get("/api/cuentas/totales/conciliacion"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static Money diferencia(JsonNode conciliacion) {
+        return Money.of(conciliacion.get("diferencia").decimalValue());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springtest.models.Cuenta;
+import com.springtest.models.Money;
 import com.springtest.models.TransaccionDto;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +14,6 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
@@ -51,7 +51,7 @@ class ControllerWebClientTest {
         dto.setCuentaOrigenId(1L);
         dto.setCuentaDestinoId(2L);
         dto.setBancoId(1L);
-        dto.setMonto(new BigDecimal("100"));
+        dto.setMonto(Money.of("100"));
 
         Map<String, Object> response = new HashMap<>();
         response.put("date", LocalDate.now().toString());
@@ -96,7 +96,7 @@ class ControllerWebClientTest {
     @Test
     @Order(2)
     void testDetalle() throws JsonProcessingException {
-        Cuenta cuenta = new Cuenta(1L,"christian", new BigDecimal("900"));
+        Cuenta cuenta = new Cuenta(1L,"christian", Money.of("900"));
 
 
         client.get().uri("/api/cuentas/1")
@@ -168,10 +168,10 @@ class ControllerWebClientTest {
                     assertEquals(2, cuentas.size());
                     assertEquals(1L, cuentas.get(0).getId());
                     assertEquals("christian", cuentas.get(0).getPersona());
-                    assertEquals(900, cuentas.get(0).getSaldo().intValue());
+                    assertEquals(Money.of("900"), cuentas.get(0).getSaldo());
                     assertEquals(2L, cuentas.get(1).getId());
                     assertEquals("juana", cuentas.get(1).getPersona());
-                    assertEquals(2100, cuentas.get(1).getSaldo().intValue());
+                    assertEquals(Money.of("2100"), cuentas.get(1).getSaldo());
                 })
                 .hasSize(2);
     }
@@ -181,7 +181,7 @@ class ControllerWebClientTest {
     @Order(6)
     void testGuardar() {
         //Given
-        Cuenta cuenta = new Cuenta(null, "pepe", new BigDecimal("3000"));
+        Cuenta cuenta = new Cuenta(null, "pepe", Money.of("3000"));
 
         //when
         client.post().uri("/api/cuentas")
@@ -203,7 +203,7 @@ class ControllerWebClientTest {
     @Order(7)
     void testGuardar2() {
         //Given
-        Cuenta cuenta = new Cuenta(null, "pepa", new BigDecimal("4000"));
+        Cuenta cuenta = new Cuenta(null, "pepa", Money.of("4000"));
 
         //when
         client.post().uri("/api/cuentas")
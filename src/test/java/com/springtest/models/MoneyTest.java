@@ -0,0 +1,51 @@
+package com.springtest.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSumarYRestar() {
+        Money saldo = Money.of("1000");
+
+        assertEquals(Money.of("900.50"), saldo.restar(Money.of("99.50")));
+        assertEquals(Money.of("1000.01"), saldo.sumar(Money.deCentavos(1)));
+        assertTrue(saldo.restar(Money.of("1000.01")).esNegativo());
+    }
+
+    @Test
+    void testDesbordamiento() {
+        assertThrows(ArithmeticException.class, () -> Money.deCentavos(Long.MAX_VALUE).sumar(Money.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> Money.deCentavos(Long.MIN_VALUE).restar(Money.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> Money.of("0.001"));
+    }
+
+    @Test
+    void testConversionDecimal() {
+        assertEquals(new BigDecimal("1000"), Money.of("1000").toBigDecimal());
+        assertEquals(new BigDecimal("1000.0"), Money.of("1000").sumar(Money.of("0.0")).toBigDecimal());
+        assertEquals("1000.00", new MoneyConverter().convertToDatabaseColumn(Money.of("1000")).toPlainString());
+        assertEquals(Money.of("2100"), new MoneyConverter().convertToEntityAttribute(new BigDecimal("2100.00")));
+    }
+
+    @Test
+    void testJson() throws Exception {
+        // como BigDecimal: se conservan los decimales con que se escribio el monto
+        assertEquals("1000", objectMapper.writeValueAsString(Money.of("1000")));
+        assertEquals("1000.50", objectMapper.writeValueAsString(Money.of("1000.50")));
+        assertEquals("900.5", objectMapper.writeValueAsString(Money.of("1000").restar(Money.of("99.5"))));
+        assertEquals(Money.of("100"), objectMapper.readValue("100", Money.class));
+        assertEquals(Money.of("100.5"), objectMapper.readValue("\"100.50\"", Money.class));
+        assertEquals("1.500", objectMapper.writeValueAsString(Money.of("1.500")));
+        assertEquals(150, Money.of("1.500").getCentavos());
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1.001", Money.class));
+    }
+}
@@ -0,0 +1,34 @@
+package com.springtest.virtuales;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Perfil {@code virtuales}: cada pedido HTTP y cada tarea {@code @Async} corre en su
+ * propio hilo virtual. Un pedido bloqueado en JDBC ya no ocupa un hilo de la
+ * plataforma; el limite real de concurrencia pasa a ser el pool de conexiones.
+ */
+@Configuration
+@Profile("virtuales")
+@EnableAsync
+public class HilosVirtualesConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> ejecutorVirtualTomcat() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // reemplaza al ejecutor de Boot; "taskExecutor" es el nombre que busca @Async
+    // cuando tambien hay un TaskScheduler en el contexto
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}